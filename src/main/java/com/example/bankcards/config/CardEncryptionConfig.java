@@ -0,0 +1,41 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.crypto.CardEncryptionProperties;
+import com.example.bankcards.service.crypto.CardKeyring;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(CardEncryptionProperties.class)
+public class CardEncryptionConfig {
+
+    @Bean
+    public CardKeyring cardKeyring(CardEncryptionProperties properties) {
+        Map<Integer, SecretKey> keys = new HashMap<>();
+        properties.getKeys().forEach((version, encoded) -> {
+            byte[] key = Base64.getDecoder().decode(encoded);
+            if (key.length != 16 && key.length != 24 && key.length != 32) {
+                throw new IllegalArgumentException("Card key version " + version + " must be 16, 24 or 32 bytes");
+            }
+            keys.put(version, new SecretKeySpec(key, "AES"));
+        });
+        return new CardKeyring(properties.getActiveKeyVersion(), keys);
+    }
+
+    @Bean
+    public CardNumberBlindIndex cardNumberBlindIndex(CardEncryptionProperties properties) {
+        byte[] key = Base64.getDecoder().decode(properties.getBlindIndexKey());
+        if (key.length < 32) {
+            throw new IllegalArgumentException("Card blind index key must be at least 32 bytes");
+        }
+        return new CardNumberBlindIndex(new SecretKeySpec(key, "HmacSHA256"));
+    }
+}
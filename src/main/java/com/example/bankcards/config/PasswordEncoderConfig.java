@@ -1,14 +1,20 @@
 package com.example.bankcards.config;
 
+import com.example.bankcards.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordEncoderConfig {
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.bcrypt-strength}") int strength,
+                                           @Value("${security.password-hashing.threads}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity}") int queueCapacity,
+                                           @Value("${security.password-hashing.retry-after-seconds}") long retryAfterSeconds,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 }
@@ -1,15 +1,78 @@
 package com.example.bankcards.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
 
 @Configuration
 public class RedisConfig {
 
     @Bean
+    @Primary
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
         return new StringRedisTemplate(connectionFactory);
     }
+
+    /**
+     * The token blacklist is read on every authenticated request, so it gets its own connection with a
+     * short command and connect timeout: a hung Redis trips the circuit breaker in TokenService within
+     * {@code jwt.revocation.redis-timeout-ms} instead of holding request threads. Every other Redis user
+     * keeps the default timeout of the shared connection factory.
+     */
+    @Bean
+    public StringRedisTemplate tokensBlacklistRedisTemplate(RedisProperties properties,
+                                                            @Value("${jwt.revocation.redis-timeout-ms}") long timeoutMs) {
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+        server.setDatabase(properties.getDatabase());
+        server.setUsername(properties.getUsername());
+        server.setPassword(properties.getPassword());
+        Duration timeout = Duration.ofMillis(timeoutMs);
+        LettuceClientConfiguration client = LettuceClientConfiguration.builder()
+            .commandTimeout(timeout)
+            .clientOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(timeout).build())
+                .build())
+            .build();
+        // Not a bean of its own: a second RedisConnectionFactory bean would replace the auto-configured one
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(server, client);
+        connectionFactory.afterPropertiesSet();
+        return new TokensBlacklistRedisTemplate(connectionFactory);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Closes the dedicated connection factory together with the template.
+     */
+    static class TokensBlacklistRedisTemplate extends StringRedisTemplate implements DisposableBean {
+        private final LettuceConnectionFactory connectionFactory;
+
+        TokensBlacklistRedisTemplate(LettuceConnectionFactory connectionFactory) {
+            super(connectionFactory);
+            this.connectionFactory = connectionFactory;
+        }
+
+        @Override
+        public void destroy() {
+            connectionFactory.destroy();
+        }
+    }
 }
@@ -3,7 +3,9 @@ package com.example.bankcards.controller;
 import com.example.bankcards.dto.auth.CreateUserRequestDTO;
 import com.example.bankcards.dto.auth.CreateUserResponseDTO;
 import com.example.bankcards.dto.auth.LoginRequestDTO;
+import com.example.bankcards.dto.auth.RefreshTokenRequestDTO;
 import com.example.bankcards.dto.auth.TokenDTO;
+import com.example.bankcards.security.UserDetailsImpl;
 import com.example.bankcards.service.AuthService;
 import com.example.bankcards.service.TokenService;
 import com.example.bankcards.service.UserService;
@@ -16,6 +18,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -35,6 +38,7 @@ public class AuthController {
         @ApiResponse(responseCode = "201", description = "Пользователь успешно создан"),
         @ApiResponse(responseCode = "409", description = "Пользователь с таким email уже существует"),
         @ApiResponse(responseCode = "400", description = "Неверные данные"),
+        @ApiResponse(responseCode = "503", description = "Сервис перегружен, повторите после Retry-After"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PostMapping("/signup")
@@ -47,6 +51,7 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешный вход"),
         @ApiResponse(responseCode = "401", description = "Неверные учетные данные"),
+        @ApiResponse(responseCode = "503", description = "Сервис перегружен, повторите после Retry-After"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PostMapping("/login")
@@ -55,18 +60,46 @@ public class AuthController {
         return ResponseEntity.ok(token);
     }
 
+    @Operation(summary = "Обновление токена доступа")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Выданы новые токены доступа и обновления"),
+        @ApiResponse(responseCode = "400", description = "Неверные данные"),
+        @ApiResponse(responseCode = "401", description = "Токен обновления недействителен или истек"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenDTO> refresh(@Valid @RequestBody RefreshTokenRequestDTO requestDTO) {
+        return ResponseEntity.ok(authService.refresh(requestDTO));
+    }
+
     @Operation(summary = "Выход из системы")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешный выход"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout(HttpServletRequest request) {
+    public ResponseEntity<Void> logout(HttpServletRequest request,
+                                       @RequestBody(required = false) RefreshTokenRequestDTO requestDTO) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             tokenService.blacklistToken(token);
         }
+        if (requestDTO != null) {
+            authService.logout(requestDTO.getRefreshToken());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @Operation(summary = "Выход на всех устройствах")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Все токены пользователя отозваны"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        authService.logoutEverywhere(userDetails.getId());
         return ResponseEntity.ok().build();
     }
 }
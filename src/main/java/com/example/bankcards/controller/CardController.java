@@ -2,6 +2,7 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.card.*;
 import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.service.CardBulkIssueService;
 import com.example.bankcards.service.CardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +13,15 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/cards")
@@ -24,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class CardController {
     private final CardService cardService;
+    private final CardBulkIssueService cardBulkIssueService;
 
     @Operation(summary = "Получить все карты пользователя")
     @ApiResponses(value = {
@@ -43,6 +50,21 @@ public class CardController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Найти карту по номеру")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Карта найдена"),
+        @ApiResponse(responseCode = "400", description = "Номер карты пуст или не состоит из 16 цифр"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен (роль не ADMIN)"),
+        @ApiResponse(responseCode = "404", description = "Карта не найдена"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping("/lookup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardDTO> lookupCard(@Valid @RequestBody CardLookupRequestDTO requestDTO) {
+        return ResponseEntity.ok(cardService.findByCardNumber(requestDTO.getCardNumber()));
+    }
+
     @Operation(summary = "Создать новую карту")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Карта создана"),
@@ -57,11 +79,40 @@ public class CardController {
         return ResponseEntity.status(HttpStatus.CREATED).body(card);
     }
 
+    @Operation(summary = "Выпустить карты пакетом из JSON-массива")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Отчет по каждой строке: выпущенная карта или ошибка"),
+        @ApiResponse(responseCode = "400", description = "Пустой запрос или превышен лимит строк"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен (роль не ADMIN)"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkIssueCardsResponseDTO> issueCards(@RequestBody List<CreateCardRequestDTO> requests) {
+        return ResponseEntity.ok(cardBulkIssueService.issue(requests));
+    }
+
+    @Operation(summary = "Выпустить карты пакетом из CSV-файла (cardHolder,expiryDate,userId)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Отчет по каждой строке: выпущенная карта или ошибка"),
+        @ApiResponse(responseCode = "400", description = "Неверный заголовок CSV, пустой файл или превышен лимит строк"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен (роль не ADMIN)"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkIssueCardsResponseDTO> issueCardsFromCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(cardBulkIssueService.issueFromCsv(file.getInputStream()));
+    }
+
     @Operation(summary = "Заблокировать карту")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Карта заблокирована"),
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "404", description = "Карта не найдена"),
+        @ApiResponse(responseCode = "409", description = "Карта изменена параллельным запросом, повторите запрос"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PatchMapping("/{cardId}/block")
@@ -81,6 +132,7 @@ public class CardController {
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "403", description = "Нет прав"),
         @ApiResponse(responseCode = "404", description = "Карта не найдена"),
+        @ApiResponse(responseCode = "409", description = "Карта изменена параллельным запросом, повторите запрос"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PatchMapping("/{cardId}/activate")
@@ -96,6 +148,7 @@ public class CardController {
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "403", description = "Нет прав"),
         @ApiResponse(responseCode = "404", description = "Карта не найдена"),
+        @ApiResponse(responseCode = "409", description = "Карта изменена параллельным запросом, повторите запрос"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @DeleteMapping("/{cardId}")
@@ -123,4 +176,23 @@ public class CardController {
         CardDTO updatedCard = cardService.setBalance(cardId, requestDTO.getNewBalance());
         return ResponseEntity.ok(updatedCard);
     }
+
+    @Operation(summary = "Установить дневной и месячный лимиты расходов по карте (только для ADMIN)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Лимиты установлены"),
+        @ApiResponse(responseCode = "400", description = "Некорректные данные запроса (например, отрицательный лимит)"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "403", description = "Доступ запрещен (роль не ADMIN)"),
+        @ApiResponse(responseCode = "404", description = "Карта не найдена"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PatchMapping("/{cardId}/limits")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CardDTO> setCardSpendLimits(
+        @PathVariable Long cardId,
+        @Valid @RequestBody SetSpendLimitsRequestDTO requestDTO) {
+
+        CardDTO updatedCard = cardService.setSpendLimits(cardId, requestDTO.getDailyLimit(), requestDTO.getMonthlyLimit());
+        return ResponseEntity.ok(updatedCard);
+    }
 }
@@ -2,9 +2,15 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
 import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.dto.transaction.TransactionSliceDTO;
+import com.example.bankcards.dto.transaction.TransferStatusDTO;
+import com.example.bankcards.service.AsyncTransferService;
 import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.service.IdempotencyService;
+import com.example.bankcards.service.TransactionExportService;
 import com.example.bankcards.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -13,11 +19,16 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -26,23 +37,34 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class TransactionController {
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService transactionExportService;
+    private final AsyncTransferService asyncTransferService;
 
     @Operation(summary = "Создать транзакцию между картами")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Транзакция создана"),
         @ApiResponse(responseCode = "401", description = "Не авторизован"),
         @ApiResponse(responseCode = "404", description = "Карта не найдена"),
-        @ApiResponse(responseCode = "400", description = "Недостаточно средств или карта заблокирована"),
+        @ApiResponse(responseCode = "400", description = "Недостаточно средств, превышен лимит расходов, карта заблокирована или некорректный Idempotency-Key"),
+        @ApiResponse(responseCode = "409", description = "Баланс карты изменён параллельной операцией или запрос с тем же Idempotency-Key ещё выполняется"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key уже использован с другим телом запроса"),
         @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
     })
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<TransactionDTO> createTransaction(
         @Valid @RequestBody CreateTransactionRequestDTO requestDTO,
-        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        @AuthenticationPrincipal UserDetailsImpl userDetails,
+        @Parameter(description = "Ключ идемпотентности для безопасного повтора запроса")
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         Long userId = userDetails.getId();
-        TransactionDTO transaction = transactionService.createTransaction(requestDTO, userId);
+        TransactionDTO transaction = idempotencyKey == null
+            ? transactionService.createTransaction(requestDTO, userId)
+            : idempotencyService.execute(userId, idempotencyKey, requestDTO, TransactionDTO.class,
+                key -> transactionService.createTransaction(requestDTO, userId, key),
+                key -> transactionService.findByIdempotencyKey(key, requestDTO));
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
     }
 
@@ -62,4 +84,82 @@ public class TransactionController {
         Page<TransactionDTO> transactions = transactionService.getTransactionsByUser(userId, pageable);
         return ResponseEntity.ok(transactions);
     }
+
+    @Operation(summary = "Получить транзакции пользователя по курсору")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Срез транзакций получен"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<TransactionSliceDTO> getTransactionsByCursor(
+        @AuthenticationPrincipal UserDetailsImpl userDetails,
+        @Parameter(description = "Курсор из nextCursor предыдущего ответа")
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size) {
+
+        Long userId = userDetails.getId();
+        TransactionSliceDTO transactions = transactionService.getTransactionsByUserAfter(userId, cursor, size);
+        return ResponseEntity.ok(transactions);
+    }
+
+    @Operation(summary = "Выгрузить всю историю транзакций пользователя в NDJSON или CSV")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Выгрузка начата"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+        @AuthenticationPrincipal UserDetailsImpl userDetails,
+        @RequestParam(defaultValue = "NDJSON") TransactionExportService.Format format) {
+
+        Long userId = userDetails.getId();
+        StreamingResponseBody body = transactionExportService.export(userId, format);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + format.getExtension() + "\"")
+            .body(body);
+    }
+
+    @Operation(summary = "Поставить транзакцию в очередь на асинхронное выполнение")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Транзакция принята в очередь"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "503", description = "Очередь переполнена, повторите после Retry-After"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @PostMapping("/async")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<TransferStatusDTO> submitTransaction(
+        @Valid @RequestBody CreateTransactionRequestDTO requestDTO,
+        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        Long userId = userDetails.getId();
+        TransferStatusDTO status = asyncTransferService.submit(userId, requestDTO);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/transactions/" + status.getTransferId() + "/status"))
+            .body(status);
+    }
+
+    @Operation(summary = "Получить статус асинхронной транзакции")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Статус получен"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "404", description = "Транзакция не найдена"),
+        @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
+    })
+    @GetMapping("/{transferId}/status")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<TransferStatusDTO> getTransferStatus(
+        @PathVariable String transferId,
+        @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        Long userId = userDetails.getId();
+        TransferStatusDTO status = asyncTransferService.getStatus(userId, transferId);
+        return ResponseEntity.ok(status);
+    }
 }
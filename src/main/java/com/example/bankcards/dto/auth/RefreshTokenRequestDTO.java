@@ -0,0 +1,14 @@
+package com.example.bankcards.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequestDTO {
+    @NotBlank(message = "Refresh token must not be empty")
+    private String refreshToken;
+}
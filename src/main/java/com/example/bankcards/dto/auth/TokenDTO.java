@@ -9,4 +9,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class TokenDTO {
     private String token;
+    private String refreshToken;
+
+    public TokenDTO(String token) {
+        this.token = token;
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIssueCardResultDTO {
+    private int row;
+    private CardDTO card;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.dto.card;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIssueCardsResponseDTO {
+    private int issued;
+    private int failed;
+    private List<BulkIssueCardResultDTO> results;
+}
@@ -19,6 +19,8 @@ public class CardDTO {
     private LocalDate expiryDate;
     private CardStatus status;
     private BigDecimal balance;
+    private BigDecimal dailyLimit;
+    private BigDecimal monthlyLimit;
     private LocalDateTime createdAt;
     private Long userId;
 }
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto.card;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardLookupRequestDTO {
+    @NotBlank(message = "Card number must not be empty")
+    private String cardNumber;
+}
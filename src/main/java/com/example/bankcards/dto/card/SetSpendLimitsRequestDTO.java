@@ -0,0 +1,20 @@
+package com.example.bankcards.dto.card;
+
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetSpendLimitsRequestDTO {
+
+    @DecimalMin(value = "0.0", message = "Daily limit must not be negative")
+    private BigDecimal dailyLimit;
+
+    @DecimalMin(value = "0.0", message = "Monthly limit must not be negative")
+    private BigDecimal monthlyLimit;
+}
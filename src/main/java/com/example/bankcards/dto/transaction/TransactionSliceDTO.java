@@ -0,0 +1,15 @@
+package com.example.bankcards.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSliceDTO {
+    private List<TransactionDTO> content;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.dto.transaction;
+
+import com.example.bankcards.entity.enums.TransferStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferStatusDTO {
+    private String transferId;
+    private TransferStatus status;
+    private TransactionDTO transaction;
+    private String error;
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,11 +18,18 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Card {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_id_seq")
+    @SequenceGenerator(name = "cards_id_seq", sequenceName = "cards_id_seq", schema = "main", allocationSize = 50)
     private Long id;
 
     private byte[] cardNumber;
 
+    private Integer cardNumberKeyVersion;
+
+    private String cardNumberLast4;
+
+    private byte[] cardNumberHash;
+
     private String cardHolder;
 
     private LocalDate expiryDate;
@@ -32,10 +40,28 @@ public class Card {
 
     private BigDecimal balance = BigDecimal.ZERO;
 
+    private BigDecimal dailyLimit;
+
+    private BigDecimal monthlyLimit;
+
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    @Version
+    private Long version;
+
+    @Formula("(SELECT COALESCE(SUM(CASE WHEN t.to_card_id = id THEN t.amount ELSE 0 END" +
+        " - CASE WHEN t.from_card_id = id THEN t.amount ELSE 0 END), 0)" +
+        " FROM main.transactions t" +
+        " WHERE t.ledger AND NOT t.compacted" +
+        " AND (t.from_card_id = id OR t.to_card_id = id))")
+    private BigDecimal ledgerDelta;
+
+    public BigDecimal getCurrentBalance() {
+        return ledgerDelta == null ? balance : balance.add(ledgerDelta);
+    }
 }
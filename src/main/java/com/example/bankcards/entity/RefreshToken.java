@@ -0,0 +1,35 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens", schema = "main")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_id_seq")
+    @SequenceGenerator(name = "refresh_tokens_id_seq", sequenceName = "refresh_tokens_id_seq", schema = "main", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private User user;
+
+    // SHA-256 of the opaque token handed to the client
+    private byte[] tokenHash;
+
+    // Shared by every token rotated from the same login
+    private String familyId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt;
+}
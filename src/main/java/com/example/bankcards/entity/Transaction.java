@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id_seq")
+    @SequenceGenerator(name = "transactions_id_seq", sequenceName = "transactions_id_seq", schema = "main", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,4 +31,12 @@ public class Transaction {
     private LocalDateTime createdAt = LocalDateTime.now();
 
     private String description;
+
+    private Boolean ledger = false;
+
+    // Set by the ledger compactor in the same statement that moves the amount into cards.balance
+    private Boolean compacted = false;
+
+    // "<userId>:<Idempotency-Key>"; unique, so a retried request can never commit a second transfer
+    private String idempotencyKey;
 }
@@ -15,7 +15,8 @@ import java.util.List;
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", schema = "main", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -29,6 +30,9 @@ public class User {
 
     private Boolean isActive = true;
 
+    // Bumped whenever tokens issued earlier must stop being accepted
+    private Integer accountVersion = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Card> cards;
 }
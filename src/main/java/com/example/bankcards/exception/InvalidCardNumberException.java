@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class InvalidCardNumberException extends RuntimeException {
+    public InvalidCardNumberException() {
+        super("Card number must consist of 16 digits");
+    }
+}
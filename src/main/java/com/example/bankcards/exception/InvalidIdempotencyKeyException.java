@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(int maxLength) {
+        super("Idempotency-Key must be non-blank and at most " + maxLength + " characters long");
+    }
+}
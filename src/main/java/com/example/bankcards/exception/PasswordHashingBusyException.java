@@ -0,0 +1,13 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Too many sign-in requests are being processed, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class RequestInProgressException extends RuntimeException {
+    public RequestInProgressException() {
+        super("A request with this Idempotency-Key is still being processed");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class SpendLimitExceededException extends RuntimeException {
+    public SpendLimitExceededException() {
+        super("Card spend limit exceeded");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.exception;
+
+public class TransferNotFoundException extends RuntimeException {
+    public TransferNotFoundException() {
+        super("Transfer is not found");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TransferQueueFullException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TransferQueueFullException(long retryAfterSeconds) {
+        super("Transfer queue is full, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,22 +2,31 @@ package com.example.bankcards.mapper;
 
 import com.example.bankcards.dto.card.CardDTO;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.service.crypto.CardNumberCipher;
 import com.example.bankcards.util.CardNumberUtil;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.springframework.beans.factory.annotation.Autowired;
 
 
 @Mapper(componentModel = "spring")
-public interface CardMapper {
-    @Mapping(target = "cardNumber", expression = "java(decryptAndMask(card.getCardNumber()))")
+public abstract class CardMapper {
+    @Autowired
+    protected CardNumberCipher cardNumberCipher;
+
+    @Mapping(target = "cardNumber", expression = "java(maskedCardNumber(card))")
     @Mapping(target = "userId", source = "user.id")
-    CardDTO toDTO(Card card);
+    @Mapping(target = "balance", source = "currentBalance")
+    public abstract CardDTO toDTO(Card card);
 
-    default String decryptAndMask(byte[] encryptedCardNumberBytes) {
-        if (encryptedCardNumberBytes == null) {
+    protected String maskedCardNumber(Card card) {
+        if (card.getCardNumberLast4() != null) {
+            return CardNumberUtil.maskLastFour(card.getCardNumberLast4());
+        }
+        if (card.getCardNumber() == null) {
             return null;
         }
-        String decrypted = CardNumberUtil.decryptCardNumber(encryptedCardNumberBytes);
+        String decrypted = cardNumberCipher.decrypt(card.getCardNumber(), card.getCardNumberKeyVersion());
         return CardNumberUtil.maskCardNumber(decrypted);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.example.bankcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Raw row access for card re-encryption. A chunk is read by id range and written back with one
+ * batched UPDATE, so neither Card entities nor their optimistic-lock version are touched.
+ */
+@Repository
+public class CardReencryptionRepository {
+    private static final String FIND_OUTDATED = "SELECT id, card_number, card_number_key_version FROM main.cards " +
+        "WHERE id > ? AND id <= ? AND (card_number_key_version IS NULL OR card_number_key_version <> ?) ORDER BY id";
+    private static final String UPDATE_CARD_NUMBER = "UPDATE main.cards SET card_number = ?, card_number_key_version = ?, " +
+        "card_number_last4 = COALESCE(card_number_last4, ?) WHERE id = ? AND card_number_key_version IS NOT DISTINCT FROM ?";
+    private static final String SAVE_PROGRESS = "INSERT INTO main.card_reencryption_progress (key_version, last_card_id, completed, updated_at) " +
+        "VALUES (?, ?, ?, ?) ON CONFLICT (key_version) DO UPDATE " +
+        "SET last_card_id = EXCLUDED.last_card_id, completed = EXCLUDED.completed, updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CardReencryptionRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public long findMaxCardId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM main.cards", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public List<CardRow> findOutdatedInRange(long afterId, long toId, int keyVersion) {
+        return jdbcTemplate.query(FIND_OUTDATED, (rs, rowNum) -> new CardRow(
+            rs.getLong("id"),
+            rs.getBytes("card_number"),
+            rs.getObject("card_number_key_version", Integer.class)), afterId, toId, keyVersion);
+    }
+
+    public int updateCardNumbers(List<ReencryptedCard> cards) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_CARD_NUMBER, cards, cards.size(), (ps, card) -> {
+            ps.setBytes(1, card.cardNumber());
+            ps.setInt(2, card.keyVersion());
+            ps.setString(3, card.lastFour());
+            ps.setLong(4, card.id());
+            ps.setObject(5, card.previousKeyVersion());
+        });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    public Optional<Progress> findProgress(int keyVersion) {
+        return jdbcTemplate.query("SELECT last_card_id, completed FROM main.card_reencryption_progress WHERE key_version = ?",
+            (rs, rowNum) -> new Progress(rs.getLong("last_card_id"), rs.getBoolean("completed")), keyVersion)
+            .stream().findFirst();
+    }
+
+    public void saveProgress(int keyVersion, Progress progress) {
+        jdbcTemplate.update(SAVE_PROGRESS, keyVersion, progress.lastCardId(), progress.completed(),
+            Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public record CardRow(long id, byte[] cardNumber, Integer keyVersion) {
+    }
+
+    public record ReencryptedCard(long id, Integer previousKeyVersion, byte[] cardNumber, int keyVersion, String lastFour) {
+    }
+
+    public record Progress(long lastCardId, boolean completed) {
+    }
+}
@@ -2,14 +2,107 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.enums.CardStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card> {
-    List<Card> findAllByStatusAndExpiryDateBefore(CardStatus status, LocalDate before);
+    @Query("SELECT COALESCE(MIN(c.id), 0) FROM Card c")
+    long findMinId();
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Card c")
+    long findMaxId();
+
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :expired, c.version = c.version + 1 " +
+        "WHERE c.status = :active AND c.expiryDate < :today AND c.id >= :fromId AND c.id < :toId")
+    int expireInIdRange(@Param("fromId") long fromId,
+                        @Param("toId") long toId,
+                        @Param("today") LocalDate today,
+                        @Param("active") CardStatus active,
+                        @Param("expired") CardStatus expired);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.status = :expired, c.version = c.version + 1 " +
+        "WHERE c.id IN :ids AND c.status = :active AND c.expiryDate < :today")
+    int expireByIds(@Param("ids") Collection<Long> ids,
+                    @Param("today") LocalDate today,
+                    @Param("active") CardStatus active,
+                    @Param("expired") CardStatus expired);
+
+    Optional<Card> findByCardNumberHash(byte[] cardNumberHash);
+
+    boolean existsByCardNumberHash(byte[] cardNumberHash);
+
+    @Query("SELECT c.cardNumberHash FROM Card c WHERE c.cardNumberHash IN :hashes")
+    List<byte[]> findExistingCardNumberHashes(@Param("hashes") Collection<byte[]> hashes);
+
+    @Query("SELECT c.id AS id, c.cardNumber AS cardNumber, c.cardNumberKeyVersion AS cardNumberKeyVersion FROM Card c " +
+        "WHERE (c.cardNumberLast4 IS NULL OR c.cardNumberHash IS NULL) AND c.id > :afterId ORDER BY c.id")
+    List<EncryptedCardNumber> findWithoutDerivedColumnsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.cardNumberLast4 = :lastFour, c.cardNumberHash = :hash WHERE c.id = :id")
+    int setDerivedColumns(@Param("id") Long id, @Param("lastFour") String lastFour, @Param("hash") byte[] hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id = :id")
+    Optional<Card> findByIdForUpdate(@Param("id") Long id);
+
+    // Uncompacted ledger entries still count against the balance
+    @Modifying
+    @Query(value = "UPDATE main.cards SET balance = balance - :amount, version = version + 1" +
+        " WHERE id = :id AND balance + (SELECT COALESCE(SUM(CASE WHEN t.to_card_id = :id THEN t.amount ELSE 0 END" +
+        " - CASE WHEN t.from_card_id = :id THEN t.amount ELSE 0 END), 0)" +
+        " FROM main.transactions t WHERE t.ledger AND NOT t.compacted" +
+        " AND (t.from_card_id = :id OR t.to_card_id = :id)) >= :amount", nativeQuery = true)
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.balance = c.balance + :amount, c.version = c.version + 1 WHERE c.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Marks every committed, uncompacted ledger entry as compacted and adds it to the card balances in
+     * one statement, so an entry is either still pending or already in the balance, never neither.
+     * Cards are locked in id order, the same order transfers use.
+     */
+    @Modifying
+    @Query(value = "WITH applied AS (" +
+        "  UPDATE main.transactions SET compacted = TRUE WHERE ledger AND NOT compacted" +
+        "  RETURNING from_card_id, to_card_id, amount" +
+        "), deltas AS (" +
+        "  SELECT e.card_id, SUM(e.delta) AS delta FROM (" +
+        "    SELECT to_card_id AS card_id, amount AS delta FROM applied" +
+        "    UNION ALL" +
+        "    SELECT from_card_id AS card_id, -amount AS delta FROM applied" +
+        "  ) e GROUP BY e.card_id" +
+        "), locked AS (" +
+        "  SELECT c.id FROM main.cards c WHERE c.id IN (SELECT card_id FROM deltas) ORDER BY c.id FOR UPDATE" +
+        ") " +
+        "UPDATE main.cards c SET balance = c.balance + d.delta, version = c.version + 1 " +
+        "FROM deltas d JOIN locked l ON l.id = d.card_id " +
+        "WHERE c.id = d.card_id", nativeQuery = true)
+    int applyLedgerEntries();
+
+    interface EncryptedCardNumber {
+        Long getId();
+
+        byte[] getCardNumber();
+
+        Integer getCardNumberKeyVersion();
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.bankcards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Lease rows for cluster-wide scheduler locks. All timestamps come from the database clock, so
+ * nodes with skewed clocks still agree on when a lease has expired.
+ */
+@Repository
+public class SchedulerLockRepository {
+    private static final String ACQUIRE = "INSERT INTO main.scheduler_locks (name, locked_until, locked_at, locked_by) " +
+        "VALUES (?, now() + ? * INTERVAL '1 millisecond', now(), ?) ON CONFLICT (name) DO UPDATE " +
+        "SET locked_until = EXCLUDED.locked_until, locked_at = EXCLUDED.locked_at, locked_by = EXCLUDED.locked_by " +
+        "WHERE main.scheduler_locks.locked_until <= now()";
+    private static final String RELEASE = "UPDATE main.scheduler_locks " +
+        "SET locked_until = GREATEST(now(), locked_at + ? * INTERVAL '1 millisecond'), " +
+        "last_run_finished_at = now(), last_run_succeeded = ? WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLockRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Takes the lease when the row is missing or its previous lease has run out.
+     */
+    public boolean tryAcquire(String name, Duration lockAtMostFor, String lockedBy) {
+        return jdbcTemplate.update(ACQUIRE, name, lockAtMostFor.toMillis(), lockedBy) > 0;
+    }
+
+    /**
+     * Records the run and shortens the lease to {@code lockAtLeastFor} after it started. Does nothing
+     * when the lease already expired and was taken by another node.
+     */
+    public void release(String name, Duration lockAtLeastFor, String lockedBy, boolean succeeded) {
+        jdbcTemplate.update(RELEASE, lockAtLeastFor.toMillis(), succeeded, name, lockedBy);
+    }
+}
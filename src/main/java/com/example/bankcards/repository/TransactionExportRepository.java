@@ -0,0 +1,45 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.transaction.TransactionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams a user's full history row by row. The read-only transaction turns off autocommit, so the
+ * Postgres driver honours the fetch size with a server-side cursor instead of buffering the result.
+ */
+@Repository
+public class TransactionExportRepository {
+    private static final String EXPORT_QUERY = "SELECT h.id, h.from_card_id, h.to_card_id, h.amount, h.created_at, h.description " +
+        "FROM ((" + TransactionRepository.OUTGOING + ") UNION ALL (" + TransactionRepository.INCOMING + ")) h " +
+        "ORDER BY h.created_at DESC, h.id DESC";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionExportRepository(DataSource dataSource,
+                                       @Value("${transaction.export.fetch-size}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamByUserId(Long userId, Consumer<TransactionDTO> consumer) {
+        jdbcTemplate.query(EXPORT_QUERY, Map.of("userId", userId), rs -> {
+            consumer.accept(new TransactionDTO(
+                rs.getLong("id"),
+                rs.getLong("from_card_id"),
+                rs.getLong("to_card_id"),
+                rs.getBigDecimal("amount"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("description")));
+        });
+    }
+}
@@ -6,10 +6,72 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    String OUTGOING = "SELECT t.* FROM main.transactions t JOIN main.cards c ON c.id = t.from_card_id " +
+        "WHERE c.user_id = :userId";
+    String INCOMING = "SELECT t.* FROM main.transactions t JOIN main.cards c ON c.id = t.to_card_id " +
+        "JOIN main.cards f ON f.id = t.from_card_id WHERE c.user_id = :userId AND f.user_id <> :userId";
+    // Row-value comparison: one index condition on (card, created_at, id) instead of an OR expansion
+    String AFTER_CURSOR = " AND (t.created_at, t.id) < (:createdAt, :id)";
+    String NEWEST_FIRST = " ORDER BY t.created_at DESC, t.id DESC LIMIT :limit";
+    String MERGE_NEWEST_FIRST = ") h ORDER BY h.created_at DESC, h.id DESC LIMIT :limit";
+
+    String HISTORY_PAGE_QUERY = "SELECT h.* FROM ((" + OUTGOING + NEWEST_FIRST + ") UNION ALL (" +
+        INCOMING + NEWEST_FIRST + ")" + MERGE_NEWEST_FIRST + " OFFSET :offset";
+    String HISTORY_COUNT_QUERY = "SELECT (SELECT COUNT(*) FROM (" + OUTGOING + ") o) + " +
+        "(SELECT COUNT(*) FROM (" + INCOMING + ") i)";
+    String HISTORY_HEAD_QUERY = "SELECT h.* FROM ((" + OUTGOING + NEWEST_FIRST + ") UNION ALL (" +
+        INCOMING + NEWEST_FIRST + ")" + MERGE_NEWEST_FIRST;
+    String HISTORY_AFTER_QUERY = "SELECT h.* FROM ((" + OUTGOING + AFTER_CURSOR + NEWEST_FIRST + ") UNION ALL (" +
+        INCOMING + AFTER_CURSOR + NEWEST_FIRST + ")" + MERGE_NEWEST_FIRST;
+
+    default Page<Transaction> findByUserId(Long userId, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return findSortedByUserId(userId, pageable);
+        }
+        List<Transaction> content = findHistoryPage(
+            userId, pageable.getOffset() + pageable.getPageSize(), pageable.getOffset());
+        return PageableExecutionUtils.getPage(content, pageable, () -> countHistory(userId));
+    }
+
+    Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
+
     @Query("SELECT t FROM Transaction t WHERE t.fromCard.user.id = :userId OR t.toCard.user.id = :userId")
-    Page<Transaction> findByUserId(@Param("userId") Long userId, Pageable pageable);
+    Page<Transaction> findSortedByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = HISTORY_PAGE_QUERY, nativeQuery = true)
+    List<Transaction> findHistoryPage(@Param("userId") Long userId,
+                                      @Param("limit") long limit,
+                                      @Param("offset") long offset);
+
+    @Query(value = HISTORY_COUNT_QUERY, nativeQuery = true)
+    long countHistory(@Param("userId") Long userId);
+
+    @Query(value = HISTORY_HEAD_QUERY, nativeQuery = true)
+    List<Transaction> findHistoryHead(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = HISTORY_AFTER_QUERY, nativeQuery = true)
+    List<Transaction> findHistoryAfter(@Param("userId") Long userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.fromCard.id = :cardId AND t.createdAt >= :since")
+    BigDecimal sumOutgoingSince(@Param("cardId") Long cardId, @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT COALESCE(SUM(CASE WHEN t.to_card_id = :cardId THEN t.amount ELSE 0 END" +
+        " - CASE WHEN t.from_card_id = :cardId THEN t.amount ELSE 0 END), 0)" +
+        " FROM main.transactions t" +
+        " WHERE t.ledger AND NOT t.compacted" +
+        " AND (t.from_card_id = :cardId OR t.to_card_id = :cardId)", nativeQuery = true)
+    BigDecimal sumPendingLedgerDelta(@Param("cardId") Long cardId);
 }
@@ -1,5 +1,7 @@
 package com.example.bankcards.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,17 +9,48 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Issues and verifies JWTs. Verified claims are cached by the SHA-256 of the token until the token
+ * expires, so a client repeating the same token skips signature checks and JSON parsing. A token
+ * that differs in any byte hashes differently and goes through full verification. The cache is an LRU
+ * bounded by {@code jwt.claims-cache.max-size}: a full cache drops the least recently used token.
+ */
 @Component
 public class JWTCore {
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String ACCOUNT_VERSION_CLAIM = "ver";
+
     private final SecretKey secretKey;
     private final long lifetime;
+    private final JwtParser parser;
+    private final int claimsCacheMaxSize;
+    // Access-ordered, guarded by itself
+    private final Map<ByteBuffer, VerifiedClaims> claimsCache;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(JWTCore::newDigest);
 
-    public JWTCore(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long lifetime) {
+    public JWTCore(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long lifetime,
+                   @Value("${jwt.claims-cache.max-size}") int claimsCacheMaxSize) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.lifetime = lifetime;
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.claimsCacheMaxSize = claimsCacheMaxSize;
+        this.claimsCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedClaims> eldest) {
+                return size() > JWTCore.this.claimsCacheMaxSize;
+            }
+        };
     }
 
     public String generateToken(Authentication authentication) {
@@ -26,7 +59,11 @@ public class JWTCore {
         Date expiration = new Date(now.getTime() + lifetime);
 
         return Jwts.builder()
+            .id(UUID.randomUUID().toString())
             .subject(userDetails.getEmail())
+            .claim(USER_ID_CLAIM, userDetails.getId())
+            .claim(ROLE_CLAIM, userDetails.getRole().name())
+            .claim(ACCOUNT_VERSION_CLAIM, userDetails.getAccountVersion())
             .issuedAt(now)
             .expiration(expiration)
             .signWith(secretKey)
@@ -34,11 +71,51 @@ public class JWTCore {
     }
 
     public String getEmailFromJwt(String token) {
-        return Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload()
-            .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    public Claims parseClaims(String token) {
+        if (claimsCacheMaxSize <= 0) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
+        ByteBuffer key = ByteBuffer.wrap(digests.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        long now = System.currentTimeMillis();
+        synchronized (claimsCache) {
+            VerifiedClaims cached = claimsCache.get(key);
+            if (cached != null) {
+                if (now < cached.expiresAt()) {
+                    return cached.claims();
+                }
+                claimsCache.remove(key);
+            }
+        }
+
+        // Throws for expired, malformed or forged tokens, so only verified claims are cached
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            synchronized (claimsCache) {
+                claimsCache.put(key, new VerifiedClaims(claims, expiration.getTime()));
+            }
+        }
+        return claims;
+    }
+
+    int claimsCacheSize() {
+        synchronized (claimsCache) {
+            return claimsCache.size();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedClaims(Claims claims, long expiresAt) {
     }
 }
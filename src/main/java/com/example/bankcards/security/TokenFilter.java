@@ -3,6 +3,7 @@ package com.example.bankcards.security;
 import com.example.bankcards.dto.ErrorResponse;
 import com.example.bankcards.service.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.FilterChain;
@@ -28,7 +29,9 @@ import java.time.LocalDateTime;
 public class TokenFilter extends OncePerRequestFilter {
     private final JWTCore jwtCore;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsCache userDetailsCache;
     private final TokenService tokenService;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
 
     @Override
@@ -50,16 +53,23 @@ public class TokenFilter extends OncePerRequestFilter {
         }
 
         if (jwt != null) {
-            if (tokenService.isTokenBlacklisted(jwt)) {
-                log.warn("Token is blacklisted: {}", jwt);
-                sendErrorResponse(response, HttpStatus.UNAUTHORIZED, "Token is invalid, please log in again");
-                return;
-            }
             try {
-                email = jwtCore.getEmailFromJwt(jwt);
+                // Verify the signature first, so forged tokens never reach the blacklist lookup
+                Claims claims = jwtCore.parseClaims(jwt);
+                if (tokenService.isTokenBlacklisted(jwt, claims)) {
+                    log.warn("Token is blacklisted: jti {}", claims.getId());
+                    sendErrorResponse(response, HttpStatus.UNAUTHORIZED, "Token is invalid, please log in again");
+                    return;
+                }
+                email = claims.getSubject();
                 log.debug("Extracted email from JWT: {}", email);
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    userDetails = userDetailsService.loadUserByUsername(email);
+                    userDetails = loadUserDetails(claims, email);
+                    if (userDetails == null) {
+                        log.warn("Token is no longer current for its account: jti {}", claims.getId());
+                        sendErrorResponse(response, HttpStatus.UNAUTHORIZED, "Token is invalid, please log in again");
+                        return;
+                    }
                     log.debug("Loaded UserDetails: {}", userDetails.getUsername());
                     auth = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -88,9 +98,29 @@ public class TokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Tokens carrying a user id are checked against the cached account: it must still exist, be active and
+     * have the role and account version the token was issued with, so blocking the user or logging out
+     * everywhere rejects every earlier token. Older tokens fall back to a lookup by email.
+     */
+    private UserDetails loadUserDetails(Claims claims, String email) {
+        Long userId = claims.get(JWTCore.USER_ID_CLAIM, Long.class);
+        if (userId == null) {
+            return userDetailsService.loadUserByUsername(email);
+        }
+        UserDetailsImpl userDetails = userDetailsCache.get(userId).orElse(null);
+        if (userDetails == null
+            || !userDetails.isEnabled()
+            || !userDetails.getRole().name().equals(claims.get(JWTCore.ROLE_CLAIM, String.class))
+            || !Integer.valueOf(userDetails.getAccountVersion()).equals(claims.get(JWTCore.ACCOUNT_VERSION_CLAIM, Integer.class))) {
+            return null;
+        }
+        return userDetails;
+    }
+
     private void sendErrorResponse(HttpServletResponse response, HttpStatus status, String message) throws IOException {
         response.setContentType("application/json");
         response.setStatus(status.value());
-        new ObjectMapper().writeValue(response.getOutputStream(), new ErrorResponse(message, LocalDateTime.now()));
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, LocalDateTime.now()));
     }
 }
@@ -0,0 +1,131 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded near-cache of {@link UserDetailsImpl} by user id, so requests carrying a current token are
+ * authenticated without a database query. Entries live for {@code jwt.user-cache.ttl-ms} at most;
+ * account changes evict them on every node through a pub/sub channel once the change has committed.
+ * A load that overlaps an eviction is returned but not cached, since it may have read the row before the change.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache implements MessageListener {
+    static final String INVALIDATION_CHANNEL = "user-details-invalidated";
+    private static final long EVICTION_INTERVAL_MS = 1_000;
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long ttlMs;
+    private final int maxSize;
+    private final Map<Long, CachedUser> users = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long nextEvictionAt;
+
+    public UserDetailsCache(UserRepository userRepository,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${jwt.user-cache.ttl-ms}") long ttlMs,
+                            @Value("${jwt.user-cache.max-size}") int maxSize) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.ttlMs = ttlMs;
+        this.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Optional<UserDetailsImpl> get(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(userId);
+        if (cached != null && now < cached.expiresAt()) {
+            return Optional.of(cached.details());
+        }
+
+        long evictionsBeforeLoad = evictions.get();
+        Optional<UserDetailsImpl> loaded = userRepository.findById(userId).map(UserDetailsImpl::build);
+        if (loaded.isPresent() && (users.size() < maxSize || evictExpired(now))) {
+            CachedUser entry = new CachedUser(loaded.get(), now + ttlMs);
+            users.put(userId, entry);
+            // Evictions bump the counter before removing, so either they remove this entry or it is dropped here.
+            if (evictions.get() != evictionsBeforeLoad) {
+                users.remove(userId, entry);
+            }
+        } else if (loaded.isEmpty()) {
+            users.remove(userId);
+        }
+        return loaded;
+    }
+
+    /**
+     * Evicts the user on this node and publishes the eviction to the others. Inside a transaction this
+     * happens after commit, so no node can reload the row as it was before the change.
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(userId);
+                }
+            });
+        } else {
+            evictEverywhere(userId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocally(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    private void evictEverywhere(Long userId) {
+        evictLocally(userId);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(userId));
+        } catch (DataAccessException e) {
+            log.warn("Could not publish eviction of user {}, other nodes keep it for up to {} ms: {}",
+                userId, ttlMs, e.getMessage());
+        }
+    }
+
+    private void evictLocally(Long userId) {
+        evictions.incrementAndGet();
+        users.remove(userId);
+    }
+
+    private boolean evictExpired(long now) {
+        if (now < nextEvictionAt) {
+            return false;
+        }
+        nextEvictionAt = now + EVICTION_INTERVAL_MS;
+        users.values().removeIf(entry -> entry.expiresAt() <= now);
+        return users.size() < maxSize;
+    }
+
+    private record CachedUser(UserDetailsImpl details, long expiresAt) {
+    }
+}
@@ -20,9 +20,15 @@ public class UserDetailsImpl implements UserDetails {
     private String password;
     private RoleEnum role;
     private boolean isActive;
+    private int accountVersion;
+
+    public UserDetailsImpl(Long id, String name, String email, String password, RoleEnum role, boolean isActive) {
+        this(id, name, email, password, role, isActive, 0);
+    }
 
     public static UserDetailsImpl build(User user) {
-        return new UserDetailsImpl(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.getRole(), user.getIsActive());
+        return new UserDetailsImpl(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.getRole(),
+            user.getIsActive(), user.getAccountVersion());
     }
 
     @Override
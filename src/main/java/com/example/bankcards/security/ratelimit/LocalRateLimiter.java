@@ -0,0 +1,46 @@
+package com.example.bankcards.security.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps one token bucket per node. Full buckets are dropped periodically, so idle clients and
+ * one-off IPs don't accumulate in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.distributed", havingValue = "false", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimiter() {
+        this(System::nanoTime);
+    }
+
+    LocalRateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimitProperties.Group group) {
+        long now = nanoClock.getAsLong();
+        return buckets.computeIfAbsent(group.getName() + ":" + key,
+                k -> new TokenBucket(group.getCapacity(), group.getRefillPerSecond(), now))
+            .tryConsume(now);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.bankcards.security.ratelimit;
+
+import com.example.bankcards.dto.ErrorResponse;
+import com.example.bankcards.security.JWTCore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles requests per endpoint group before authentication runs. Requests with a valid bearer
+ * token are counted per user, everything else per client IP. The IP is the one resolved by the servlet
+ * container, so behind a proxy it relies on {@code server.forward-headers-strategy} to honour X-Forwarded-For.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final JWTCore jwtCore;
+    private final RateLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RateLimitProperties.Group group = findGroup(request);
+        if (group != null) {
+            String clientKey = clientKey(request);
+            long waitNanos = rateLimiter.tryAcquire(clientKey, group);
+            if (waitNanos > 0) {
+                log.warn("Rate limit exceeded for group {} by {}", group.getName(), clientKey);
+                sendTooManyRequests(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    private RateLimitProperties.Group findGroup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Group group : properties.getGroups()) {
+            for (String pattern : group.getPatterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String headerAuth = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (headerAuth != null && headerAuth.startsWith("Bearer ")) {
+            try {
+                return "user:" + jwtCore.getEmailFromJwt(headerAuth.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Rate limiting by IP, token is not valid: {}", e.getMessage());
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void sendTooManyRequests(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setContentType("application/json");
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        objectMapper.writeValue(response.getOutputStream(),
+            new ErrorResponse("Too many requests, please retry later", LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bankcards.security.ratelimit;
+
+public interface RateLimiter {
+
+    /**
+     * Takes one token from the bucket of {@code key} in {@code group}.
+     *
+     * @return 0 if the request may proceed, otherwise nanoseconds until a token becomes available
+     */
+    long tryAcquire(String key, RateLimitProperties.Group group);
+}
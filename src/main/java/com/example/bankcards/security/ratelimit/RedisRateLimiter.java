@@ -0,0 +1,41 @@
+package com.example.bankcards.security.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Shares token buckets between nodes through Redis. Refill uses the Redis clock, so nodes with
+ * skewed clocks still agree. If Redis is unavailable requests are let through rather than rejected.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rate-limit.distributed", havingValue = "true")
+public class RedisRateLimiter implements RateLimiter {
+    private static final String KEY_PREFIX = "rate-limit:";
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/rate-limit-token-bucket.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public long tryAcquire(String key, RateLimitProperties.Group group) {
+        try {
+            Long waitMicros = redisTemplate.execute(TOKEN_BUCKET_SCRIPT,
+                List.of(KEY_PREFIX + group.getName() + ":" + key),
+                String.valueOf(group.getCapacity()), String.valueOf(group.getRefillPerSecond()));
+            return waitMicros == null ? 0 : waitMicros * 1_000;
+        } catch (DataAccessException e) {
+            log.warn("Rate limit check skipped, Redis is unavailable: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
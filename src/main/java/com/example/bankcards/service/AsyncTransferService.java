@@ -0,0 +1,223 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.dto.transaction.TransferStatusDTO;
+import com.example.bankcards.entity.enums.TransferStatus;
+import com.example.bankcards.exception.CardBlockedException;
+import com.example.bankcards.exception.CardExpiredException;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.SpendLimitExceededException;
+import com.example.bankcards.exception.TransferConflictException;
+import com.example.bankcards.exception.TransferNotFoundException;
+import com.example.bankcards.exception.TransferQueueFullException;
+import com.example.bankcards.mapper.TransactionMapper;
+import com.example.bankcards.service.transfer.PessimisticTransferStrategy;
+import com.example.bankcards.service.transfer.QueuedTransfer;
+import com.example.bankcards.service.transfer.TransferOutcome;
+import com.example.bankcards.service.transfer.TransferStrategy;
+import com.example.bankcards.service.transfer.TransferStrategyType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts transfers into a bounded in-memory queue and applies them on a fixed pool of workers with the
+ * configured {@code transfer.strategy}. With the pessimistic strategy each worker drains up to
+ * {@code batch-size} queued transfers and commits them in one transaction, so a burst of requests holds
+ * only {@code workers} database connections; other strategies apply the drained transfers one by one.
+ * Outcomes are kept in Redis for status polling. Queued transfers are not durable: they are failed on shutdown.
+ */
+@Service
+@Slf4j
+public class AsyncTransferService {
+    private static final String STATUS_KEY_PREFIX = "transfer:status:";
+    private static final String INTERNAL_ERROR = "Inner server error";
+    private static final String UNKNOWN_OUTCOME = "Transfer outcome could not be recorded, check the transaction history before retrying";
+
+    private final TransferStrategy transferStrategy;
+    private final PessimisticTransferStrategy batchStrategy;
+    private final TransactionMapper transactionMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<QueuedTransfer> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration statusTtl;
+    private final long retryAfterSeconds;
+    private final ExecutorService workers;
+
+    public AsyncTransferService(List<TransferStrategy> transferStrategies,
+                                @Value("${transfer.strategy}") TransferStrategyType strategyType,
+                                TransactionMapper transactionMapper,
+                                StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${transfer.async.queue-capacity}") int queueCapacity,
+                                @Value("${transfer.async.workers}") int workerCount,
+                                @Value("${transfer.async.batch-size}") int batchSize,
+                                @Value("${transfer.async.status-ttl-ms}") long statusTtlMs,
+                                @Value("${transfer.async.retry-after-seconds}") long retryAfterSeconds) {
+        Map<TransferStrategyType, TransferStrategy> strategies = new EnumMap<>(TransferStrategyType.class);
+        transferStrategies.forEach(strategy -> strategies.put(strategy.getType(), strategy));
+        this.transferStrategy = strategies.get(strategyType);
+        if (this.transferStrategy == null) {
+            throw new IllegalStateException("No transfer strategy registered for " + strategyType);
+        }
+        this.batchStrategy = transferStrategy instanceof PessimisticTransferStrategy pessimistic ? pessimistic : null;
+        this.transactionMapper = transactionMapper;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.statusTtl = Duration.ofMillis(statusTtlMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("transfer-worker-"));
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainQueue);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<QueuedTransfer> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(transfer -> publish(TransferOutcome.failed(transfer, "Service is shutting down, please retry")));
+    }
+
+    public TransferStatusDTO submit(Long userId, CreateTransactionRequestDTO requestDTO) {
+        String transferId = UUID.randomUUID().toString();
+        TransferStatusDTO status = new TransferStatusDTO(transferId, TransferStatus.PENDING, null, null);
+        saveStatus(userId, status);
+
+        if (!queue.offer(new QueuedTransfer(transferId, userId, requestDTO))) {
+            redisTemplate.delete(statusKey(userId, transferId));
+            throw new TransferQueueFullException(retryAfterSeconds);
+        }
+        return status;
+    }
+
+    public TransferStatusDTO getStatus(Long userId, String transferId) {
+        String value = redisTemplate.opsForValue().get(statusKey(userId, transferId));
+        if (value == null) {
+            throw new TransferNotFoundException();
+        }
+        try {
+            return objectMapper.readValue(value, TransferStatusDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read transfer status", e);
+        }
+    }
+
+    private void drainQueue() {
+        List<QueuedTransfer> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Transfer worker failed to publish a batch of {} transfers", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void processBatch(List<QueuedTransfer> batch) {
+        List<TransferOutcome> outcomes;
+        if (batchStrategy == null) {
+            outcomes = batch.stream().map(this::processSingle).toList();
+        } else {
+            try {
+                outcomes = batchStrategy.transferBatch(batch);
+            } catch (RuntimeException e) {
+                log.warn("Transfer batch of {} failed, retrying transfers one by one", batch.size(), e);
+                outcomes = batch.stream().map(this::processSingle).toList();
+            }
+        }
+        outcomes.forEach(this::publishOrFail);
+    }
+
+    private TransferOutcome processSingle(QueuedTransfer transfer) {
+        try {
+            if (batchStrategy != null) {
+                return batchStrategy.transferBatch(List.of(transfer)).get(0);
+            }
+            return TransferOutcome.completed(transfer, transferStrategy.transfer(transfer.userId(), transfer.request()));
+        } catch (CardNotFoundException | CardBlockedException | CardExpiredException | InsufficientFundsException
+                 | SpendLimitExceededException | TransferConflictException e) {
+            return TransferOutcome.failed(transfer, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Transfer {} failed", transfer.transferId(), e);
+            return TransferOutcome.failed(transfer, INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Publishes every outcome on its own, so one that cannot be published does not leave the rest of
+     * the batch PENDING. An outcome that fails to publish is still marked FAILED, with an error that
+     * tells the client to check the history: the transfer itself may already be committed.
+     */
+    private void publishOrFail(TransferOutcome outcome) {
+        QueuedTransfer transfer = outcome.transfer();
+        try {
+            publish(outcome);
+        } catch (RuntimeException e) {
+            log.error("Could not publish outcome of transfer {}", transfer.transferId(), e);
+            try {
+                saveStatus(transfer.userId(), new TransferStatusDTO(transfer.transferId(), TransferStatus.FAILED, null, UNKNOWN_OUTCOME));
+            } catch (RuntimeException statusError) {
+                log.error("Could not mark transfer {} as failed", transfer.transferId(), statusError);
+            }
+        }
+    }
+
+    private void publish(TransferOutcome outcome) {
+        QueuedTransfer transfer = outcome.transfer();
+        TransferStatusDTO status = outcome.transaction() != null
+            ? new TransferStatusDTO(transfer.transferId(), TransferStatus.COMPLETED, transactionMapper.toDTO(outcome.transaction()), null)
+            : new TransferStatusDTO(transfer.transferId(), TransferStatus.FAILED, null, outcome.error());
+        saveStatus(transfer.userId(), status);
+    }
+
+    private void saveStatus(Long userId, TransferStatusDTO status) {
+        try {
+            redisTemplate.opsForValue().set(statusKey(userId, status.getTransferId()),
+                objectMapper.writeValueAsString(status), statusTtl);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write transfer status", e);
+        }
+    }
+
+    private String statusKey(Long userId, String transferId) {
+        return STATUS_KEY_PREFIX + userId + ":" + transferId;
+    }
+}
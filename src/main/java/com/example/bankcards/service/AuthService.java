@@ -1,8 +1,10 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.auth.LoginRequestDTO;
+import com.example.bankcards.dto.auth.RefreshTokenRequestDTO;
 import com.example.bankcards.dto.auth.TokenDTO;
 import com.example.bankcards.security.JWTCore;
+import com.example.bankcards.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JWTCore jwtCore;
+    private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
     public TokenDTO login(LoginRequestDTO loginRequestDTO) {
         Authentication authentication = authenticationManager.authenticate(
@@ -22,8 +26,29 @@ public class AuthService {
                 loginRequestDTO.getPassword()
             )
         );
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         String token = jwtCore.generateToken(authentication);
 
-        return new TokenDTO(token);
+        return new TokenDTO(token, refreshTokenService.issue(userDetails.getId()));
+    }
+
+    public TokenDTO refresh(RefreshTokenRequestDTO requestDTO) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(requestDTO.getRefreshToken());
+        UserDetailsImpl userDetails = UserDetailsImpl.build(rotation.user());
+        Authentication authentication =
+            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        String token = jwtCore.generateToken(authentication);
+
+        return new TokenDTO(token, rotation.refreshToken());
+    }
+
+    public void logout(String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    public void logoutEverywhere(Long userId) {
+        userService.revokeAllSessions(userId);
     }
 }
@@ -0,0 +1,322 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.card.BulkIssueCardResultDTO;
+import com.example.bankcards.dto.card.BulkIssueCardsResponseDTO;
+import com.example.bankcards.dto.card.CreateCardRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.InvalidBulkRequestException;
+import com.example.bankcards.mapper.CardMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.crypto.CardCiphertext;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
+import com.example.bankcards.util.CardNumberUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Issues many cards in one request. Users are loaded with one query, card numbers are generated and
+ * encrypted in parallel on a bounded pool, and all cards are saved in one transaction so Hibernate
+ * sends them as JDBC batches. Invalid rows are reported individually instead of failing the request.
+ */
+@Service
+@Slf4j
+public class CardBulkIssueService {
+    public static final String CSV_HEADER = "cardHolder,expiryDate,userId";
+    private static final int HASH_PROBE_CHUNK_SIZE = 1000;
+    private static final int MAX_REGENERATION_ROUNDS = 10;
+
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final CardMapper cardMapper;
+    private final CardNumberCipher cardNumberCipher;
+    private final CardNumberBlindIndex cardNumberBlindIndex;
+    private final CardExpiryIndex cardExpiryIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxRows;
+    private final ExecutorService encryptionPool;
+
+    public CardBulkIssueService(CardRepository cardRepository,
+                                UserRepository userRepository,
+                                CardMapper cardMapper,
+                                CardNumberCipher cardNumberCipher,
+                                CardNumberBlindIndex cardNumberBlindIndex,
+                                CardExpiryIndex cardExpiryIndex,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${card.bulk.max-rows}") int maxRows,
+                                @Value("${card.bulk.threads}") int threads) {
+        this.cardRepository = cardRepository;
+        this.userRepository = userRepository;
+        this.cardMapper = cardMapper;
+        this.cardNumberCipher = cardNumberCipher;
+        this.cardNumberBlindIndex = cardNumberBlindIndex;
+        this.cardExpiryIndex = cardExpiryIndex;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxRows = maxRows;
+        this.encryptionPool = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("card-issue-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        encryptionPool.shutdownNow();
+    }
+
+    public BulkIssueCardsResponseDTO issue(List<CreateCardRequestDTO> requests) {
+        if (requests == null) {
+            throw new InvalidBulkRequestException("No cards to issue");
+        }
+        List<BulkRow> rows = new ArrayList<>(requests.size());
+        for (CreateCardRequestDTO request : requests) {
+            rows.add(new BulkRow(request, request == null ? "Row is empty" : null));
+        }
+        return issueRows(rows);
+    }
+
+    public BulkIssueCardsResponseDTO issueFromCsv(InputStream csv) {
+        List<BulkRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || !CSV_HEADER.equalsIgnoreCase(header.replace("\uFEFF", "").replace(" ", ""))) {
+                throw new InvalidBulkRequestException("CSV must start with the header " + CSV_HEADER);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(parseCsvRow(line));
+                }
+                if (rows.size() > maxRows) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidBulkRequestException("CSV file could not be read");
+        }
+        return issueRows(rows);
+    }
+
+    private BulkIssueCardsResponseDTO issueRows(List<BulkRow> rows) {
+        if (rows.isEmpty()) {
+            throw new InvalidBulkRequestException("No cards to issue");
+        }
+        if (rows.size() > maxRows) {
+            throw new InvalidBulkRequestException("At most " + maxRows + " cards can be issued per request");
+        }
+
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            errors[i] = rows.get(i).error() != null ? rows.get(i).error() : validate(rows.get(i).request());
+        }
+        Map<Long, User> users = loadUsers(rows, errors);
+
+        Card[] cards = prepareCards(rows, errors, users);
+        resolveCardNumberCollisions(cards);
+
+        List<Card> toSave = new ArrayList<>();
+        for (Card card : cards) {
+            if (card != null) {
+                toSave.add(card);
+            }
+        }
+        if (!toSave.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> cardRepository.saveAll(toSave));
+            cardExpiryIndex.addAll(toSave);
+        }
+
+        List<BulkIssueCardResultDTO> results = new ArrayList<>(rows.size());
+        int issued = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (cards[i] != null) {
+                results.add(new BulkIssueCardResultDTO(i + 1, cardMapper.toDTO(cards[i]), null));
+                issued++;
+            } else {
+                results.add(new BulkIssueCardResultDTO(i + 1, null, errors[i]));
+            }
+        }
+        log.info("Bulk issuance: {} cards issued, {} rows rejected", issued, rows.size() - issued);
+        return new BulkIssueCardsResponseDTO(issued, rows.size() - issued, results);
+    }
+
+    private String validate(CreateCardRequestDTO request) {
+        Set<ConstraintViolation<CreateCardRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private Map<Long, User> loadUsers(List<BulkRow> rows, String[] errors) {
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null) {
+                userIds.add(rows.get(i).request().getUserId());
+            }
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null && !users.containsKey(rows.get(i).request().getUserId())) {
+                errors[i] = "User not found";
+            }
+        }
+        return users;
+    }
+
+    private Card[] prepareCards(List<BulkRow> rows, String[] errors, Map<Long, User> users) {
+        List<CompletableFuture<Card>> futures = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null) {
+                CreateCardRequestDTO request = rows.get(i).request();
+                User user = users.get(request.getUserId());
+                futures.add(CompletableFuture.supplyAsync(() -> newCard(request, user), encryptionPool));
+            } else {
+                futures.add(CompletableFuture.completedFuture(null));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return futures.stream().map(CompletableFuture::join).toArray(Card[]::new);
+    }
+
+    private Card newCard(CreateCardRequestDTO request, User user) {
+        Card card = new Card();
+        card.setCardHolder(request.getCardHolder());
+        card.setExpiryDate(request.getExpiryDate());
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.ZERO);
+        card.setUser(user);
+        assignCardNumber(card);
+        return card;
+    }
+
+    private void assignCardNumber(Card card) {
+        String cardNumber = CardNumberUtil.generateCardNumber();
+        CardCiphertext ciphertext = cardNumberCipher.encrypt(cardNumber);
+        card.setCardNumber(ciphertext.data());
+        card.setCardNumberKeyVersion(ciphertext.keyVersion());
+        card.setCardNumberLast4(CardNumberUtil.lastFour(cardNumber));
+        card.setCardNumberHash(cardNumberBlindIndex.hash(cardNumber));
+    }
+
+    /**
+     * Redraws numbers that clash with each other or with an existing card. The unique index on the
+     * blind index still rejects a clash with a card inserted concurrently.
+     */
+    private void resolveCardNumberCollisions(Card[] cards) {
+        List<Card> pending = new ArrayList<>();
+        for (Card card : cards) {
+            if (card != null) {
+                pending.add(card);
+            }
+        }
+        Set<ByteBuffer> seen = new HashSet<>();
+        for (int round = 0; round < MAX_REGENERATION_ROUNDS && !pending.isEmpty(); round++) {
+            Set<ByteBuffer> existing = findExistingHashes(pending);
+            List<Card> colliding = new ArrayList<>();
+            for (Card card : pending) {
+                ByteBuffer hash = ByteBuffer.wrap(card.getCardNumberHash());
+                if (existing.contains(hash) || !seen.add(hash)) {
+                    colliding.add(card);
+                }
+            }
+            colliding.forEach(this::assignCardNumber);
+            pending = colliding;
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Could not generate unused card numbers");
+        }
+    }
+
+    private Set<ByteBuffer> findExistingHashes(List<Card> cards) {
+        Set<ByteBuffer> existing = new HashSet<>();
+        for (int from = 0; from < cards.size(); from += HASH_PROBE_CHUNK_SIZE) {
+            List<byte[]> hashes = cards.subList(from, Math.min(from + HASH_PROBE_CHUNK_SIZE, cards.size())).stream()
+                .map(Card::getCardNumberHash)
+                .toList();
+            cardRepository.findExistingCardNumberHashes(hashes).forEach(hash -> existing.add(ByteBuffer.wrap(hash)));
+        }
+        return existing;
+    }
+
+    private BulkRow parseCsvRow(String line) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() != 3) {
+            return new BulkRow(null, "Expected 3 columns: " + CSV_HEADER);
+        }
+        LocalDate expiryDate;
+        try {
+            expiryDate = fields.get(1).isBlank() ? null : LocalDate.parse(fields.get(1).trim());
+        } catch (DateTimeParseException e) {
+            return new BulkRow(null, "Expiry date must be in yyyy-MM-dd format");
+        }
+        Long userId;
+        try {
+            userId = fields.get(2).isBlank() ? null : Long.valueOf(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+            return new BulkRow(null, "User id must be a number");
+        }
+        return new BulkRow(new CreateCardRequestDTO(fields.get(0).trim(), expiryDate, userId), null);
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record BulkRow(CreateCardRequestDTO request, String error) {
+    }
+}
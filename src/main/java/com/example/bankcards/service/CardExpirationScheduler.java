@@ -1,38 +1,66 @@
 package com.example.bankcards.service;
 
-import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.repository.CardRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.bankcards.service.lock.SchedulerLock;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
 
+/**
+ * Expires overdue active cards with bulk UPDATEs over fixed id ranges, committing each range on its
+ * own so no run holds a long transaction or loads cards into memory.
+ */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class CardExpirationScheduler {
-
     private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final DistributionSummary expiredPerRun;
+    private final Timer runTimer;
+
+    public CardExpirationScheduler(CardRepository cardRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${card.expiration.chunk-size}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.expiredPerRun = meterRegistry.summary("card.expiration.expired");
+        this.runTimer = meterRegistry.timer("card.expiration.run");
+    }
 
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
+    @SchedulerLock(name = "card-expiration", lockAtMostFor = "30m", lockAtLeastFor = "5m")
     public void checkCardExpiration() {
         LocalDate today = LocalDate.now();
+        long started = System.nanoTime();
 
-        List<Card> expiredCards = cardRepository.findAllByStatusAndExpiryDateBefore(CardStatus.ACTIVE, today);
-
-        if (expiredCards.isEmpty()) {
-            return;
+        long minId = cardRepository.findMinId();
+        long maxId = cardRepository.findMaxId();
+        int expired = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            Integer updated = transactionTemplate.execute(status -> cardRepository.expireInIdRange(
+                from, from + chunkSize, today, CardStatus.ACTIVE, CardStatus.EXPIRED));
+            expired += updated == null ? 0 : updated;
         }
 
-
-        for (Card card : expiredCards) {
-            card.setStatus(CardStatus.EXPIRED);
+        long durationNanos = System.nanoTime() - started;
+        runTimer.record(Duration.ofNanos(durationNanos));
+        expiredPerRun.record(expired);
+        if (expired > 0) {
+            log.info("Expired {} cards in {} ms", expired, durationNanos / 1_000_000);
         }
-
-        cardRepository.saveAll(expiredCards);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Redis sorted set of card ids scored by the epoch day on which the card becomes expired. Writes are
+ * best effort: a card missing from the index is still caught by the nightly expiration run.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CardExpiryIndex {
+    static final String KEY = "card:expiry";
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_DUE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/card-expiry-pop-due.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public void add(Card card) {
+        addAll(List.of(card));
+    }
+
+    public void addAll(Collection<Card> cards) {
+        if (cards.isEmpty()) {
+            return;
+        }
+        Set<TypedTuple<String>> entries = cards.stream()
+            .map(card -> new DefaultTypedTuple<>(String.valueOf(card.getId()), (double) dueDay(card.getExpiryDate())))
+            .collect(Collectors.toSet());
+        try {
+            redisTemplate.opsForZSet().add(KEY, entries);
+        } catch (DataAccessException e) {
+            log.warn("Could not index expiry of {} cards: {}", cards.size(), e.getMessage());
+        }
+    }
+
+    public void remove(Long cardId) {
+        try {
+            redisTemplate.opsForZSet().remove(KEY, String.valueOf(cardId));
+        } catch (DataAccessException e) {
+            log.warn("Could not remove card {} from expiry index: {}", cardId, e.getMessage());
+        }
+    }
+
+    /**
+     * Puts popped ids back as due today, for a batch whose status update failed.
+     */
+    public void requeue(Collection<Long> cardIds, LocalDate today) {
+        Set<TypedTuple<String>> entries = cardIds.stream()
+            .map(id -> new DefaultTypedTuple<>(String.valueOf(id), (double) today.toEpochDay()))
+            .collect(Collectors.toSet());
+        try {
+            redisTemplate.opsForZSet().add(KEY, entries);
+        } catch (DataAccessException e) {
+            log.warn("Could not requeue {} cards in expiry index: {}", cardIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Atomically removes and returns up to {@code limit} ids of cards that are expired on {@code today},
+     * so pollers on several nodes never get the same id.
+     */
+    public List<Long> popDue(LocalDate today, int limit) {
+        @SuppressWarnings("unchecked")
+        List<String> ids = redisTemplate.execute(POP_DUE_SCRIPT, List.of(KEY),
+            String.valueOf(today.toEpochDay()), String.valueOf(limit));
+        return ids == null ? List.of() : ids.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * A card expires once its expiry date is in the past, i.e. on the day after it.
+     */
+    private static long dueDay(LocalDate expiryDate) {
+        return expiryDate.plusDays(1).toEpochDay();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expires cards shortly after they become due by popping their ids from {@link CardExpiryIndex}
+ * in small batches. Popping is atomic, so every node can poll without a scheduler lock.
+ */
+@Component
+@Slf4j
+public class CardExpiryPoller {
+    private final CardRepository cardRepository;
+    private final CardExpiryIndex cardExpiryIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter expiredCards;
+
+    public CardExpiryPoller(CardRepository cardRepository,
+                            CardExpiryIndex cardExpiryIndex,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${card.expiration.poll-batch-size}") int batchSize) {
+        this.cardRepository = cardRepository;
+        this.cardExpiryIndex = cardExpiryIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.expiredCards = meterRegistry.counter("card.expiration.polled");
+    }
+
+    @Scheduled(fixedDelayString = "${card.expiration.poll-interval-ms}")
+    public void expireDueCards() {
+        LocalDate today = LocalDate.now();
+        List<Long> cardIds;
+        do {
+            try {
+                cardIds = cardExpiryIndex.popDue(today, batchSize);
+            } catch (DataAccessException e) {
+                log.warn("Expiry index is unavailable: {}", e.getMessage());
+                return;
+            }
+            if (cardIds.isEmpty()) {
+                return;
+            }
+
+            List<Long> batch = cardIds;
+            try {
+                Integer updated = transactionTemplate.execute(status -> cardRepository.expireByIds(
+                    batch, today, CardStatus.ACTIVE, CardStatus.EXPIRED));
+                expiredCards.increment(updated == null ? 0 : updated);
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} due cards, requeueing them", batch.size(), e);
+                cardExpiryIndex.requeue(batch, today);
+                return;
+            }
+        } while (cardIds.size() == batchSize);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.CardEncryptingException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
+import com.example.bankcards.service.lock.SchedulerLock;
+import com.example.bankcards.util.CardNumberUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills {@code cards.card_number_last4} and {@code cards.card_number_hash} for cards issued before
+ * those columns existed. Both are derived from the plain number, so each card is decrypted once. Cards are walked
+ * by id in chunks, each chunk in its own transaction, and the version column is left alone so the
+ * job never conflicts with concurrent transfers. A legacy card whose number is already indexed for another card
+ * is skipped before the update, because a unique violation would mark the whole chunk transaction rollback-only.
+ * If a concurrent insert still wins the race, the pass stops there and the next run picks the chunk up again.
+ * Once a pass finishes without errors the job stops.
+ */
+@Component
+@Slf4j
+public class CardNumberBackfill {
+    private final CardRepository cardRepository;
+    private final CardNumberCipher cardNumberCipher;
+    private final CardNumberBlindIndex blindIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private volatile boolean completed;
+
+    public CardNumberBackfill(CardRepository cardRepository,
+                              CardNumberCipher cardNumberCipher,
+                              CardNumberBlindIndex blindIndex,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${card.number-backfill.chunk-size}") int chunkSize) {
+        this.cardRepository = cardRepository;
+        this.cardNumberCipher = cardNumberCipher;
+        this.blindIndex = blindIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${card.number-backfill.initial-delay-ms}",
+        fixedDelayString = "${card.number-backfill.interval-ms}")
+    @SchedulerLock(name = "card-number-backfill", lockAtMostFor = "2h")
+    public void backfill() {
+        if (completed) {
+            return;
+        }
+
+        long afterId = 0;
+        int updated = 0;
+        int failed = 0;
+        while (true) {
+            long from = afterId;
+            ChunkResult chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> backfillChunk(from));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Card number backfill chunk after card {} was rolled back: a number was indexed concurrently",
+                    from);
+                failed++;
+                break;
+            }
+            if (chunk == null || chunk.lastId() == null) {
+                break;
+            }
+            afterId = chunk.lastId();
+            updated += chunk.updated();
+            failed += chunk.failed();
+        }
+
+        if (updated > 0 || failed > 0) {
+            log.info("Backfilled card number columns for {} cards, {} failed", updated, failed);
+        }
+        completed = failed == 0;
+    }
+
+    private ChunkResult backfillChunk(long afterId) {
+        List<CardRepository.EncryptedCardNumber> cards =
+            cardRepository.findWithoutDerivedColumnsAfter(afterId, PageRequest.of(0, chunkSize));
+        if (cards.isEmpty()) {
+            return new ChunkResult(null, 0, 0);
+        }
+
+        int updated = 0;
+        int failed = 0;
+        for (CardRepository.EncryptedCardNumber card : cards) {
+            try {
+                String cardNumber = cardNumberCipher.decrypt(card.getCardNumber(), card.getCardNumberKeyVersion());
+                byte[] hash = blindIndex.hash(cardNumber);
+                if (cardRepository.existsByCardNumberHash(hash)) {
+                    log.warn("Skipping card {} in card number backfill: its number is already indexed for another card",
+                        card.getId());
+                    failed++;
+                    continue;
+                }
+                updated += cardRepository.setDerivedColumns(card.getId(), CardNumberUtil.lastFour(cardNumber), hash);
+            } catch (CardEncryptingException e) {
+                log.warn("Skipping card {} in card number backfill: {}", card.getId(), e.getMessage());
+                failed++;
+            }
+        }
+        return new ChunkResult(cards.get(cards.size() - 1).getId(), updated, failed);
+    }
+
+    boolean isCompleted() {
+        return completed;
+    }
+
+    private record ChunkResult(Long lastId, int updated, int failed) {
+    }
+}
@@ -9,10 +9,14 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.entity.enums.RoleEnum;
 import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InvalidCardNumberException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.crypto.CardCiphertext;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
 import com.example.bankcards.util.CardNumberUtil;
 import com.example.bankcards.util.CardSpecification;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +36,9 @@ public class CardService {
     private final CardRepository cardRepository;
     private final UserRepository userRepository;
     private final CardMapper cardMapper;
+    private final CardNumberCipher cardNumberCipher;
+    private final CardNumberBlindIndex cardNumberBlindIndex;
+    private final CardExpiryIndex cardExpiryIndex;
 
     public GetAllCardsResponseDTO getAllCardsByUser(Long userId, Pageable pageable, CardFilterDTO filterDTO) {
         User user = userRepository.findById(userId)
@@ -59,12 +67,16 @@ public class CardService {
         User user = userRepository.findById(requestDTO.getUserId())
             .orElseThrow(UserNotFoundException::new);
 
-        String plainCardNumber = CardNumberUtil.generateCardNumber();
+        String plainCardNumber = CardNumberUtil.generateCardNumber(
+            number -> cardRepository.existsByCardNumberHash(cardNumberBlindIndex.hash(number)));
 
-        byte[] encryptedCardNumberBytes = CardNumberUtil.encryptCardNumber(plainCardNumber);
+        CardCiphertext encryptedCardNumber = cardNumberCipher.encrypt(plainCardNumber);
 
         Card card = new Card();
-        card.setCardNumber(encryptedCardNumberBytes);
+        card.setCardNumber(encryptedCardNumber.data());
+        card.setCardNumberKeyVersion(encryptedCardNumber.keyVersion());
+        card.setCardNumberLast4(CardNumberUtil.lastFour(plainCardNumber));
+        card.setCardNumberHash(cardNumberBlindIndex.hash(plainCardNumber));
         card.setCardHolder(requestDTO.getCardHolder());
         card.setExpiryDate(requestDTO.getExpiryDate());
         card.setStatus(CardStatus.ACTIVE);
@@ -72,9 +84,20 @@ public class CardService {
         card.setUser(user);
 
         Card savedCard = cardRepository.save(card);
+        cardExpiryIndex.add(savedCard);
         return cardMapper.toDTO(savedCard);
     }
 
+    public CardDTO findByCardNumber(String cardNumber) {
+        String normalized = CardNumberUtil.normalizeCardNumber(cardNumber);
+        if (!CardNumberUtil.isValidCardNumber(normalized)) {
+            throw new InvalidCardNumberException();
+        }
+        Card card = cardRepository.findByCardNumberHash(cardNumberBlindIndex.hash(normalized))
+            .orElseThrow(CardNotFoundException::new);
+        return cardMapper.toDTO(card);
+    }
+
     @Transactional
     public CardDTO blockCard(Long cardId, Long userId) {
         Card card = cardRepository.findById(cardId)
@@ -99,6 +122,7 @@ public class CardService {
 
         card.setStatus(CardStatus.ACTIVE);
         Card savedCard = cardRepository.save(card);
+        cardExpiryIndex.add(savedCard);
         return cardMapper.toDTO(savedCard);
     }
 
@@ -108,6 +132,7 @@ public class CardService {
             throw new CardNotFoundException();
         }
         cardRepository.deleteById(cardId);
+        cardExpiryIndex.remove(cardId);
     }
 
     public Card findById(Long cardId) {
@@ -128,7 +153,19 @@ public class CardService {
         Card card = cardRepository.findById(cardId)
             .orElseThrow(CardNotFoundException::new);
 
-        card.setBalance(newBalance);
+        // In ledger mode part of the balance may still sit in uncompacted entries
+        card.setBalance(newBalance.subtract(Objects.requireNonNullElse(card.getLedgerDelta(), BigDecimal.ZERO)));
+        Card savedCard = cardRepository.save(card);
+        return cardMapper.toDTO(savedCard);
+    }
+
+    @Transactional
+    public CardDTO setSpendLimits(Long cardId, BigDecimal dailyLimit, BigDecimal monthlyLimit) {
+        Card card = cardRepository.findById(cardId)
+            .orElseThrow(CardNotFoundException::new);
+
+        card.setDailyLimit(dailyLimit);
+        card.setMonthlyLimit(monthlyLimit);
         Card savedCard = cardRepository.save(card);
         return cardMapper.toDTO(savedCard);
     }
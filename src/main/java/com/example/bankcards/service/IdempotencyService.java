@@ -0,0 +1,170 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.IdempotencyKeyReusedException;
+import com.example.bankcards.exception.InvalidIdempotencyKeyException;
+import com.example.bankcards.exception.RequestInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Deduplicates retried requests by {@code Idempotency-Key}. The first request claims the key with
+ * SET NX and stores its response when done; replays with the same body get the stored response,
+ * concurrent duplicates poll until it appears. A failed request releases the key so it can be retried.
+ * <p>
+ * Redis only caches responses and keeps concurrent duplicates waiting. The action itself persists the
+ * key under a unique constraint in its own transaction, so a retry that gets past an expired claim or a
+ * lost cache entry finds the committed result instead of executing again.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lockTtl;
+    private final Duration waitTimeout;
+    private final long pollIntervalMs;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl-ms}") long ttlMs,
+                              @Value("${idempotency.lock-ttl-ms}") long lockTtlMs,
+                              @Value("${idempotency.wait-timeout-ms}") long waitTimeoutMs,
+                              @Value("${idempotency.poll-interval-ms}") long pollIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.lockTtl = Duration.ofMillis(lockTtlMs);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * @param action    runs the request, persisting the scoped key it is given under a unique constraint
+     * @param completed looks up the result committed under the scoped key
+     */
+    public <T> T execute(Long userId, String idempotencyKey, Object request, Class<T> responseType,
+                         Function<String, T> action, Function<String, Optional<T>> completed) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+        }
+        String scopedKey = userId + ":" + idempotencyKey;
+        String key = KEY_PREFIX + scopedKey;
+        String fingerprint = fingerprint(request);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            if (tryClaim(key, fingerprint)) {
+                return runAndStore(key, scopedKey, fingerprint, action, completed);
+            }
+
+            IdempotencyRecord record = read(key);
+            if (record != null) {
+                if (!record.fingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyReusedException();
+                }
+                if (record.response() != null) {
+                    log.debug("Replaying stored response for idempotency key {}", key);
+                    return deserialize(record.response(), responseType);
+                }
+            }
+
+            if (System.nanoTime() >= deadline) {
+                throw new RequestInProgressException();
+            }
+            sleep();
+        }
+    }
+
+    private boolean tryClaim(String key, String fingerprint) {
+        Boolean claimed = redisTemplate.opsForValue()
+            .setIfAbsent(key, serialize(new IdempotencyRecord(fingerprint, null)), lockTtl);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    private <T> T runAndStore(String key, String scopedKey, String fingerprint,
+                              Function<String, T> action, Function<String, Optional<T>> completed) {
+        T response;
+        try {
+            response = completed.apply(scopedKey).orElseGet(() -> runOnce(scopedKey, action, completed));
+        } catch (RuntimeException e) {
+            redisTemplate.delete(key);
+            throw e;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, serialize(new IdempotencyRecord(fingerprint, serialize(response))), ttl);
+        } catch (DataAccessException e) {
+            log.warn("Could not cache response for idempotency key {}, retries will read it from the database: {}",
+                key, e.getMessage());
+        }
+        return response;
+    }
+
+    private <T> T runOnce(String scopedKey, Function<String, T> action, Function<String, Optional<T>> completed) {
+        try {
+            return action.apply(scopedKey);
+        } catch (DataIntegrityViolationException e) {
+            // A duplicate whose claim had expired committed first
+            return completed.apply(scopedKey).orElseThrow(() -> e);
+        }
+    }
+
+    private IdempotencyRecord read(String key) {
+        String value = redisTemplate.opsForValue().get(key);
+        return value == null ? null : deserialize(value, IdempotencyRecord.class);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(serialize(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotency record", e);
+        }
+    }
+
+    private <T> T deserialize(String value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not deserialize idempotency record", e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException();
+        }
+    }
+
+    record IdempotencyRecord(String fingerprint, String response) {
+    }
+}
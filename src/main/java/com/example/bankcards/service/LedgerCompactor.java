@@ -0,0 +1,31 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.lock.SchedulerLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rolls pending ledger entries into {@code cards.balance}. Each entry carries its own
+ * {@code compacted} flag, flipped in the same statement that applies it, so an entry whose transfer
+ * commits while compaction runs is simply picked up by the next run.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerCompactor {
+    private final CardRepository cardRepository;
+
+    @Scheduled(fixedDelayString = "${ledger.compaction.interval-ms}")
+    @SchedulerLock(name = "ledger-compaction", lockAtMostFor = "10m")
+    @Transactional
+    public void compact() {
+        int updatedCards = cardRepository.applyLedgerEntries();
+        if (updatedCards > 0) {
+            log.info("Compacted pending ledger entries into {} card balances", updatedCards);
+        }
+    }
+}
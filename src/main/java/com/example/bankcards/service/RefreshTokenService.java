@@ -0,0 +1,130 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.lock.SchedulerLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Only a SHA-256 of each token is stored. Every refresh revokes the
+ * presented token and issues a successor in the same family; presenting a token that was already
+ * rotated means it leaked, so the whole family is revoked and that login has to start over.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration lifetime;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${jwt.refresh.expiration}") long lifetimeMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.lifetime = Duration.ofMillis(lifetimeMs);
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        return create(userRepository.getReferenceById(userId), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. The row is locked, so two concurrent refreshes with
+     * the same token cannot both succeed.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+            .orElseThrow(InvalidRefreshTokenException::new);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.getRevokedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            if (revoked > 0) {
+                log.warn("Rotated refresh token reused for user {}, revoked {} tokens of its family",
+                    current.getUser().getId(), revoked);
+            }
+            throw new InvalidRefreshTokenException();
+        }
+        if (!current.getExpiresAt().isAfter(now) || !Boolean.TRUE.equals(current.getUser().getIsActive())) {
+            throw new InvalidRefreshTokenException();
+        }
+
+        current.setRevokedAt(now);
+        String next = create(current.getUser(), current.getFamilyId());
+        return new Rotation(current.getUser(), next);
+    }
+
+    /**
+     * Ends the login the token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+            .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${jwt.refresh.purge-cron}")
+    @SchedulerLock(name = "refresh-token-purge", lockAtMostFor = "30m", lockAtLeastFor = "1m")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String create(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(lifetime));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    /**
+     * Tokens are 256 random bits, so a plain hash is enough; there is nothing to brute-force.
+     */
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -1,29 +1,275 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.security.JWTCore;
+import com.example.bankcards.util.BloomFilter;
+import com.example.bankcards.util.CircuitBreaker;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Revokes tokens by their {@code jti}, stored in Redis until the token would have expired anyway.
+ * Every node keeps a Bloom filter of revoked jtis, fed by a pub/sub channel and rebuilt from Redis
+ * periodically, so a token that was never revoked is accepted without a Redis round trip. A filter
+ * hit is confirmed in Redis. Until the first rebuild completes every check goes to Redis. Pub/sub drops
+ * messages sent while this node was disconnected, so the filter is also rebuilt whenever the listener
+ * container (re)subscribes to the channel.
+ * <p>
+ * Redis calls go through a circuit breaker. Revocations made or received on this node are also kept in
+ * memory until the token expires, so while Redis is unavailable lookups are answered locally instead of
+ * failing every request. Revocations that could not be written are pushed to Redis once it recovers.
+ */
 @Service
-public class TokenService {
+@Slf4j
+public class TokenService implements MessageListener, SubscriptionListener {
+    static final String REVOKED_KEY_PREFIX = "revoked-jti:";
+    static final String REVOKED_CHANNEL = "revoked-jti";
+
     private final StringRedisTemplate tokensBlacklist;
-    private final Long TOKEN_TTL;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JWTCore jwtCore;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final long tokenLifetimeMs;
+    private final CircuitBreaker redisBreaker;
+    // Redis key -> expiry in epoch millis, for every revocation this node has seen
+    private final Map<String, Long> localRevocations = new ConcurrentHashMap<>();
+    // Local revocations not yet written to Redis
+    private final Map<String, Long> pendingRevocations = new ConcurrentHashMap<>();
+
+    // Guards adding to the filters against the swap at the end of a rebuild
+    private final Object filterLock = new Object();
+    private volatile BloomFilter revokedJtis;
+    private volatile BloomFilter rebuilding;
 
-    public TokenService(StringRedisTemplate tokensBlacklist,
-                        @Value("${jwt.expiration}") Long tokenTtl) {
+    public TokenService(@Qualifier("tokensBlacklistRedisTemplate") StringRedisTemplate tokensBlacklist,
+                        RedisMessageListenerContainer listenerContainer,
+                        JWTCore jwtCore,
+                        @Value("${jwt.revocation.expected-revocations}") long expectedRevocations,
+                        @Value("${jwt.revocation.false-positive-rate}") double falsePositiveRate,
+                        @Value("${jwt.expiration}") long tokenLifetimeMs,
+                        @Value("${jwt.revocation.circuit-breaker.failure-threshold}") int failureThreshold,
+                        @Value("${jwt.revocation.circuit-breaker.open-duration-ms}") long openDurationMs) {
         this.tokensBlacklist = tokensBlacklist;
-        this.TOKEN_TTL = tokenTtl;
+        this.listenerContainer = listenerContainer;
+        this.jwtCore = jwtCore;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.redisBreaker = new CircuitBreaker(failureThreshold, openDurationMs);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOKED_CHANNEL));
     }
 
     public void blacklistToken(String token) {
-        tokensBlacklist.opsForValue().set(token, "blacklisted", TOKEN_TTL, TimeUnit.MILLISECONDS);
+        Claims claims;
+        try {
+            claims = jwtCore.parseClaims(token);
+        } catch (JwtException e) {
+            log.debug("Not blacklisting a token that is already invalid: {}", e.getMessage());
+            return;
+        }
+        Duration ttl = remainingLifetime(claims);
+        if (ttl.isZero()) {
+            return;
+        }
+        String jti = claims.getId();
+        // Tokens issued before the jti claim are still keyed by the full token string
+        String key = jti == null ? token : REVOKED_KEY_PREFIX + jti;
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        localRevocations.put(key, expiresAt);
+        if (jti != null) {
+            markRevoked(jti);
+        }
+        if (!writeRevocation(key, ttl)) {
+            pendingRevocations.put(key, expiresAt);
+            log.warn("Token revocation kept locally until Redis is available again");
+        }
+    }
+
+    /**
+     * Expects claims that were already verified by {@link JWTCore#parseClaims}.
+     */
+    public boolean isTokenBlacklisted(String token, Claims claims) {
+        String jti = claims.getId();
+        String key = jti == null ? token : REVOKED_KEY_PREFIX + jti;
+        if (isRevokedLocally(key)) {
+            return true;
+        }
+        if (jti != null) {
+            BloomFilter filter = revokedJtis;
+            if (filter != null && !filter.mightContain(jti)) {
+                return false;
+            }
+        }
+        if (!redisBreaker.allowRequest()) {
+            return false;
+        }
+        try {
+            boolean revoked = Objects.requireNonNullElse(tokensBlacklist.hasKey(key), false);
+            onRedisSuccess();
+            return revoked;
+        } catch (DataAccessException e) {
+            onRedisFailure(e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String jti = new String(message.getBody(), StandardCharsets.UTF_8);
+        markRevoked(jti);
+        // The message carries no expiry, so keep it as long as any token can live
+        localRevocations.put(REVOKED_KEY_PREFIX + jti, System.currentTimeMillis() + tokenLifetimeMs);
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        log.info("Subscribed to token revocations, rebuilding the revoked token filter");
+        rebuildRevokedFilter();
+    }
+
+    /**
+     * Rebuilds the filter from the keys still in Redis, which also drops jtis of tokens that have expired
+     * since. Revocations that arrive while the scan runs go into both filters.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms}")
+    public synchronized void rebuildRevokedFilter() {
+        if (!redisBreaker.allowRequest()) {
+            return;
+        }
+        BloomFilter filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        synchronized (filterLock) {
+            rebuilding = filter;
+        }
+        int count = 0;
+        try (Cursor<String> keys = tokensBlacklist.scan(ScanOptions.scanOptions()
+            .match(REVOKED_KEY_PREFIX + "*").count(1000).build())) {
+            while (keys.hasNext()) {
+                filter.add(keys.next().substring(REVOKED_KEY_PREFIX.length()));
+                count++;
+            }
+            synchronized (filterLock) {
+                revokedJtis = filter;
+                rebuilding = null;
+            }
+            onRedisSuccess();
+        } catch (DataAccessException e) {
+            synchronized (filterLock) {
+                rebuilding = null;
+            }
+            onRedisFailure(e);
+            return;
+        }
+        if (count > expectedRevocations) {
+            log.warn("{} revoked tokens exceed the expected {}, the filter will pass more checks to Redis",
+                count, expectedRevocations);
+        }
+    }
+
+    private void markRevoked(String jti) {
+        synchronized (filterLock) {
+            if (revokedJtis != null) {
+                revokedJtis.add(jti);
+            }
+            if (rebuilding != null) {
+                rebuilding.add(jti);
+            }
+        }
+    }
+
+    /**
+     * Drops local revocations of tokens that have expired and writes the ones made during a Redis
+     * outage back to Redis, stopping at the first failure.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.reconcile-interval-ms}")
+    public void reconcileRevocations() {
+        long now = System.currentTimeMillis();
+        localRevocations.values().removeIf(expiresAt -> expiresAt <= now);
+        int written = 0;
+        Iterator<Map.Entry<String, Long>> pending = pendingRevocations.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<String, Long> entry = pending.next();
+            long remainingMs = entry.getValue() - now;
+            if (remainingMs > 0) {
+                if (!writeRevocation(entry.getKey(), Duration.ofMillis(remainingMs))) {
+                    break;
+                }
+                written++;
+            }
+            pending.remove();
+        }
+        if (written > 0) {
+            log.info("Wrote {} token revocations made while Redis was unavailable", written);
+        }
+    }
+
+    private boolean isRevokedLocally(String key) {
+        Long expiresAt = localRevocations.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private boolean writeRevocation(String key, Duration ttl) {
+        if (!redisBreaker.allowRequest()) {
+            return false;
+        }
+        try {
+            if (key.startsWith(REVOKED_KEY_PREFIX)) {
+                tokensBlacklist.opsForValue().set(key, "1", ttl);
+                tokensBlacklist.convertAndSend(REVOKED_CHANNEL, key.substring(REVOKED_KEY_PREFIX.length()));
+            } else {
+                tokensBlacklist.opsForValue().set(key, "blacklisted", ttl);
+            }
+            onRedisSuccess();
+            return true;
+        } catch (DataAccessException e) {
+            onRedisFailure(e);
+            return false;
+        }
+    }
+
+    private void onRedisSuccess() {
+        if (redisBreaker.recordSuccess()) {
+            log.info("Redis is available again, {} token revocations to reconcile", pendingRevocations.size());
+        }
+    }
+
+    private void onRedisFailure(DataAccessException e) {
+        if (redisBreaker.recordFailure()) {
+            log.warn("Redis is unavailable, checking token revocations locally: {}", e.getMessage());
+        } else {
+            log.debug("Redis call for token revocation failed: {}", e.getMessage());
+        }
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        Boolean isBlacklisted = tokensBlacklist.hasKey(token);
-        return Objects.requireNonNullElse(isBlacklisted, false);
+    private static Duration remainingLifetime(Claims claims) {
+        Date expiration = claims.getExpiration();
+        long remainingMs = expiration == null ? 0 : expiration.getTime() - System.currentTimeMillis();
+        return remainingMs > 0 ? Duration.ofMillis(remainingMs) : Duration.ZERO;
     }
 }
@@ -0,0 +1,84 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.repository.TransactionExportRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final String CSV_HEADER = "id,fromCardId,toCardId,amount,createdAt,description";
+
+    private final TransactionExportRepository transactionExportRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public StreamingResponseBody export(Long userId, Format format) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(UserNotFoundException::new);
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            try {
+                transactionExportRepository.streamByUserId(user.getId(), transaction -> {
+                    try {
+                        writer.write(format == Format.CSV ? toCsv(transaction) : objectMapper.writeValueAsString(transaction));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private String toCsv(TransactionDTO transaction) {
+        return transaction.getId() + "," +
+            transaction.getFromCardId() + "," +
+            transaction.getToCardId() + "," +
+            transaction.getAmount().toPlainString() + "," +
+            transaction.getCreatedAt() + "," +
+            escapeCsv(transaction.getDescription());
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+    }
+}
@@ -2,61 +2,79 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
 import com.example.bankcards.dto.transaction.TransactionDTO;
-import com.example.bankcards.entity.Card;
+import com.example.bankcards.dto.transaction.TransactionSliceDTO;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.entity.User;
-import com.example.bankcards.entity.enums.CardStatus;
-import com.example.bankcards.exception.CardBlockedException;
-import com.example.bankcards.exception.CardExpiredException;
-import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.IdempotencyKeyReusedException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.TransactionMapper;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.bankcards.service.transfer.TransferStrategy;
+import com.example.bankcards.service.transfer.TransferStrategyType;
+import com.example.bankcards.util.TransactionCursor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
-    private final CardService cardService;
     private final TransactionMapper transactionMapper;
     private final UserRepository userRepository;
+    private final TransferStrategy transferStrategy;
 
-    @Transactional
-    public TransactionDTO createTransaction(CreateTransactionRequestDTO requestDTO, Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(UserNotFoundException::new);
-
-        Card fromCard = cardService.findByIdAndUserId(requestDTO.getFromCardId(), user.getId());
-        Card toCard = cardService.findByIdAndUserId(requestDTO.getToCardId(), user.getId());
+    public TransactionService(TransactionRepository transactionRepository,
+                              TransactionMapper transactionMapper,
+                              UserRepository userRepository,
+                              List<TransferStrategy> transferStrategies,
+                              @Value("${transfer.strategy}") TransferStrategyType strategyType) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.userRepository = userRepository;
 
-        validateCardForTransaction(fromCard);
-        validateCardForTransaction(toCard);
-
-        if (fromCard.getBalance().compareTo(requestDTO.getAmount()) < 0) {
-            throw new InsufficientFundsException();
+        Map<TransferStrategyType, TransferStrategy> strategies = new EnumMap<>(TransferStrategyType.class);
+        transferStrategies.forEach(strategy -> strategies.put(strategy.getType(), strategy));
+        this.transferStrategy = strategies.get(strategyType);
+        if (this.transferStrategy == null) {
+            throw new IllegalStateException("No transfer strategy registered for " + strategyType);
         }
+    }
 
-        fromCard.setBalance(fromCard.getBalance().subtract(requestDTO.getAmount()));
-        toCard.setBalance(toCard.getBalance().add(requestDTO.getAmount()));
+    public TransactionDTO createTransaction(CreateTransactionRequestDTO requestDTO, Long userId) {
+        return createTransaction(requestDTO, userId, null);
+    }
 
-        Transaction transaction = new Transaction();
-        transaction.setFromCard(fromCard);
-        transaction.setToCard(toCard);
-        transaction.setAmount(requestDTO.getAmount());
-        transaction.setDescription(requestDTO.getDescription());
+    public TransactionDTO createTransaction(CreateTransactionRequestDTO requestDTO, Long userId, String idempotencyKey) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(UserNotFoundException::new);
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        Transaction savedTransaction = transferStrategy.transfer(user.getId(), requestDTO, idempotencyKey);
         return transactionMapper.toDTO(savedTransaction);
     }
 
+    /**
+     * Returns the transfer already committed under this idempotency key, if any.
+     */
+    public Optional<TransactionDTO> findByIdempotencyKey(String idempotencyKey, CreateTransactionRequestDTO requestDTO) {
+        return transactionRepository.findByIdempotencyKey(idempotencyKey)
+            .map(transaction -> {
+                if (!isSameRequest(transaction, requestDTO)) {
+                    throw new IdempotencyKeyReusedException();
+                }
+                return transactionMapper.toDTO(transaction);
+            });
+    }
+
     public Page<TransactionDTO> getTransactionsByUser(Long userId, Pageable pageable) {
         User user = userRepository.findById(userId)
             .orElseThrow(UserNotFoundException::new);
@@ -64,15 +82,32 @@ public class TransactionService {
         return transactions.map(transactionMapper::toDTO);
     }
 
-    private void validateCardForTransaction(Card card) {
-        if (card.getStatus() == CardStatus.BLOCKED) {
-            throw new CardBlockedException();
-        }
-        if (card.getStatus() == CardStatus.EXPIRED) {
-            throw new CardExpiredException();
+    public TransactionSliceDTO getTransactionsByUserAfter(Long userId, String cursor, int size) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(UserNotFoundException::new);
+        int limit = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+
+        List<Transaction> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findHistoryHead(user.getId(), limit + 1);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findHistoryAfter(
+                user.getId(), position.createdAt(), position.id(), limit + 1);
         }
-        if (card.getExpiryDate().isBefore(LocalDate.now())) {
-            throw new CardExpiredException();
+
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            nextCursor = TransactionCursor.of(transactions.get(limit - 1)).encode();
         }
+        return new TransactionSliceDTO(transactions.stream().map(transactionMapper::toDTO).toList(), nextCursor);
+    }
+
+    private static boolean isSameRequest(Transaction transaction, CreateTransactionRequestDTO requestDTO) {
+        return transaction.getFromCard().getId().equals(requestDTO.getFromCardId())
+            && transaction.getToCard().getId().equals(requestDTO.getToCardId())
+            && transaction.getAmount().compareTo(requestDTO.getAmount()) == 0
+            && Objects.equals(transaction.getDescription(), requestDTO.getDescription());
     }
 }
@@ -10,6 +10,7 @@ import com.example.bankcards.exception.NoUserActivenessUpdateException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.GetAllUsersMapper;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +24,8 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final GetAllUsersMapper getAllUsersMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenService refreshTokenService;
 
     public CreateUserResponseDTO createUser(CreateUserRequestDTO requestDTO) {
         if (userRepository.existsByEmail(requestDTO.getEmail())) {
@@ -50,11 +53,19 @@ public class UserService {
             .orElseThrow(UserNotFoundException::new);
     }
 
+    @Transactional
+    public User updatePasswordHash(String email, String passwordHash) {
+        User user = findByEmail(email);
+        user.setPassword(passwordHash);
+        return user;
+    }
+
     @Transactional
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(UserNotFoundException::new);
         userRepository.deleteById(user.getId());
+        userDetailsCache.invalidate(userId);
     }
 
     @Transactional
@@ -64,6 +75,22 @@ public class UserService {
             throw new NoUserActivenessUpdateException(userId, true);
         }
         user.setIsActive(false);
+        user.setAccountVersion(user.getAccountVersion() + 1);
+        userDetailsCache.invalidate(userId);
+        refreshTokenService.revokeAllForUser(userId);
+    }
+
+    /**
+     * Ends every session of the user: bumping the account version rejects all access tokens issued so
+     * far, and the refresh tokens are revoked in the same transaction.
+     */
+    @Transactional
+    public void revokeAllSessions(Long userId) {
+        if (userRepository.incrementAccountVersion(userId) == 0) {
+            throw new UserNotFoundException();
+        }
+        userDetailsCache.invalidate(userId);
+        refreshTokenService.revokeAllForUser(userId);
     }
 
     @Transactional
@@ -73,6 +100,8 @@ public class UserService {
             throw new NoUserActivenessUpdateException(userId, false);
         }
         user.setIsActive(true);
+        user.setAccountVersion(user.getAccountVersion() + 1);
+        userDetailsCache.invalidate(userId);
     }
 
     public GetAllUsersResponseDTO getAllUsers(Pageable pageable) {
@@ -0,0 +1,4 @@
+package com.example.bankcards.service.crypto;
+
+public record CardCiphertext(byte[] data, int keyVersion) {
+}
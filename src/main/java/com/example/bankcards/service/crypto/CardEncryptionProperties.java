@@ -0,0 +1,17 @@
+package com.example.bankcards.service.crypto;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "card.encryption")
+public class CardEncryptionProperties {
+    private int activeKeyVersion;
+    /** Base64-encoded AES keys by version. */
+    private Map<Integer, String> keys = new HashMap<>();
+    /** Base64-encoded HMAC key for the card number blind index. */
+    private String blindIndexKey;
+}
@@ -0,0 +1,42 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.exception.CardEncryptingException;
+
+import javax.crypto.SecretKey;
+import java.util.Map;
+
+/**
+ * Card number keys by version. New ciphertexts always use the active version; older versions stay
+ * in the ring until the re-encryption job has moved every card off them.
+ */
+public class CardKeyring {
+    public static final int MAX_VERSION = 255;
+
+    private final Map<Integer, SecretKey> keys;
+    private final int activeVersion;
+
+    public CardKeyring(int activeVersion, Map<Integer, SecretKey> keys) {
+        keys.keySet().forEach(version -> {
+            if (version < 1 || version > MAX_VERSION) {
+                throw new IllegalArgumentException("Card key version must be between 1 and " + MAX_VERSION + ": " + version);
+            }
+        });
+        if (!keys.containsKey(activeVersion)) {
+            throw new IllegalArgumentException("No card key configured for active version " + activeVersion);
+        }
+        this.keys = Map.copyOf(keys);
+        this.activeVersion = activeVersion;
+    }
+
+    public int getActiveVersion() {
+        return activeVersion;
+    }
+
+    public SecretKey getKey(int version) {
+        SecretKey key = keys.get(version);
+        if (key == null) {
+            throw new CardEncryptingException("Unknown card key version " + version);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.exception.CardEncryptingException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Keyed HMAC-SHA256 of the plain card number, stored next to the ciphertext so a card can be found
+ * by number through a unique index. The key is separate from the encryption keyring and is not
+ * rotated with it: changing it means recomputing every stored index.
+ */
+public class CardNumberBlindIndex {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKey key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public CardNumberBlindIndex(SecretKey key) {
+        this.key = key;
+        newMac();
+    }
+
+    public byte[] hash(String cardNumber) {
+        return macs.get().doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new CardEncryptingException("Blind index initialization error", e);
+        }
+    }
+}
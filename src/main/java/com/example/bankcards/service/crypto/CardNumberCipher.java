@@ -0,0 +1,83 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.exception.CardEncryptingException;
+import com.example.bankcards.util.CardNumberUtil;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Encrypts card numbers as {@code version byte | 12-byte nonce | AES-GCM ciphertext and tag}, with
+ * the version byte bound in as associated data. The version is also stored in
+ * {@code cards.card_number_key_version}; a null there marks the legacy unversioned AES/CBC format,
+ * which is still decrypted through {@link CardNumberUtil}.
+ */
+@Component
+public class CardNumberCipher {
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int HEADER_LENGTH = 1 + NONCE_LENGTH;
+
+    private final CardKeyring keyring;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(CardNumberCipher::newCipher);
+
+    public CardNumberCipher(CardKeyring keyring) {
+        this.keyring = keyring;
+    }
+
+    public CardCiphertext encrypt(String cardNumber) {
+        int version = keyring.getActiveVersion();
+        try {
+            byte[] plainBytes = cardNumber.getBytes(StandardCharsets.UTF_8);
+            Cipher cipher = ciphers.get();
+            byte[] data = new byte[HEADER_LENGTH + plainBytes.length + TAG_BITS / 8];
+            data[0] = (byte) version;
+            byte[] nonce = new byte[NONCE_LENGTH];
+            random.nextBytes(nonce);
+            System.arraycopy(nonce, 0, data, 1, NONCE_LENGTH);
+
+            cipher.init(Cipher.ENCRYPT_MODE, keyring.getKey(version), new GCMParameterSpec(TAG_BITS, data, 1, NONCE_LENGTH));
+            cipher.updateAAD(data, 0, 1);
+            cipher.doFinal(plainBytes, 0, plainBytes.length, data, HEADER_LENGTH);
+            return new CardCiphertext(data, version);
+        } catch (GeneralSecurityException e) {
+            throw new CardEncryptingException("Card encoding error", e);
+        }
+    }
+
+    public String decrypt(byte[] data, Integer keyVersion) {
+        if (keyVersion == null) {
+            return CardNumberUtil.decryptCardNumber(data);
+        }
+        if (data == null || data.length <= HEADER_LENGTH || Byte.toUnsignedInt(data[0]) != keyVersion) {
+            throw new CardEncryptingException("Invalid encrypted data");
+        }
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, keyring.getKey(keyVersion), new GCMParameterSpec(TAG_BITS, data, 1, NONCE_LENGTH));
+            cipher.updateAAD(data, 0, 1);
+            byte[] plainBytes = cipher.doFinal(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+            return new String(plainBytes, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new CardEncryptingException("Card decrypting error", e);
+        }
+    }
+
+    public int getActiveKeyVersion() {
+        return keyring.getActiveVersion();
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new CardEncryptingException("Cipher initialization error", e);
+        }
+    }
+}
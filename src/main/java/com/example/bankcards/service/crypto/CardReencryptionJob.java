@@ -0,0 +1,148 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.exception.CardEncryptingException;
+import com.example.bankcards.repository.CardReencryptionRepository;
+import com.example.bankcards.repository.CardReencryptionRepository.CardRow;
+import com.example.bankcards.repository.CardReencryptionRepository.Progress;
+import com.example.bankcards.repository.CardReencryptionRepository.ReencryptedCard;
+import com.example.bankcards.service.lock.SchedulerLock;
+import com.example.bankcards.util.CardNumberUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves card numbers onto the active key version. Cards are walked by id range in fixed-size chunks;
+ * each chunk is rewritten and its checkpoint saved in one transaction, so a restart resumes after the
+ * last committed chunk. Cards issued while the job runs already use the active key and are skipped.
+ * Throughput can be capped with {@code card.reencryption.max-rows-per-second}. Cards that cannot be decrypted
+ * are counted and logged by id but do not hold the pass open, since a corrupt row or a retired key would
+ * otherwise make every run walk the whole table again.
+ */
+@Component
+@Slf4j
+public class CardReencryptionJob {
+    private final CardReencryptionRepository reencryptionRepository;
+    private final CardNumberCipher cardNumberCipher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+
+    private final AtomicLong lastCardId;
+    private final AtomicLong maxCardId;
+    private final Counter reencryptedRows;
+    private final Counter failedRows;
+    private final Timer chunkTimer;
+
+    public CardReencryptionJob(CardReencryptionRepository reencryptionRepository,
+                               CardNumberCipher cardNumberCipher,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${card.reencryption.chunk-size}") int chunkSize,
+                               @Value("${card.reencryption.max-rows-per-second}") int maxRowsPerSecond) {
+        this.reencryptionRepository = reencryptionRepository;
+        this.cardNumberCipher = cardNumberCipher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.lastCardId = meterRegistry.gauge("card.reencryption.last.card.id", new AtomicLong());
+        this.maxCardId = meterRegistry.gauge("card.reencryption.max.card.id", new AtomicLong());
+        this.reencryptedRows = meterRegistry.counter("card.reencryption.rows", "result", "reencrypted");
+        this.failedRows = meterRegistry.counter("card.reencryption.rows", "result", "failed");
+        this.chunkTimer = meterRegistry.timer("card.reencryption.chunk");
+    }
+
+    @Scheduled(initialDelayString = "${card.reencryption.initial-delay-ms}",
+        fixedDelayString = "${card.reencryption.interval-ms}")
+    @SchedulerLock(name = "card-reencryption", lockAtMostFor = "2h")
+    public void run() {
+        int keyVersion = cardNumberCipher.getActiveKeyVersion();
+        Progress progress = reencryptionRepository.findProgress(keyVersion).orElse(new Progress(0, false));
+        if (progress.completed()) {
+            return;
+        }
+
+        long maxId = reencryptionRepository.findMaxCardId();
+        maxCardId.set(maxId);
+        long afterId = progress.lastCardId();
+        lastCardId.set(afterId);
+        int updated = 0;
+        List<Long> failedIds = new ArrayList<>();
+        while (afterId < maxId && !Thread.currentThread().isInterrupted()) {
+            long from = afterId;
+            long to = Math.min(from + chunkSize, maxId);
+            long started = System.nanoTime();
+            ChunkResult chunk = chunkTimer.record(() -> transactionTemplate.execute(status -> reencryptChunk(keyVersion, from, to)));
+
+            afterId = to;
+            lastCardId.set(to);
+            updated += chunk.updated();
+            failedIds.addAll(chunk.failedIds());
+            throttle(to - from, started);
+        }
+        if (afterId < maxId) {
+            return;
+        }
+
+        long finishedAt = afterId;
+        transactionTemplate.executeWithoutResult(status ->
+            reencryptionRepository.saveProgress(keyVersion, new Progress(finishedAt, true)));
+        log.info("Card re-encryption to key version {} finished: {} cards rewritten, {} failed",
+            keyVersion, updated, failedIds.size());
+        if (!failedIds.isEmpty()) {
+            log.error("Cards left on an old key version after re-encryption to key version {}: {}", keyVersion, failedIds);
+        }
+    }
+
+    private ChunkResult reencryptChunk(int keyVersion, long afterId, long toId) {
+        List<CardRow> rows = reencryptionRepository.findOutdatedInRange(afterId, toId, keyVersion);
+        List<ReencryptedCard> reencrypted = new ArrayList<>(rows.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (CardRow row : rows) {
+            try {
+                String cardNumber = cardNumberCipher.decrypt(row.cardNumber(), row.keyVersion());
+                CardCiphertext ciphertext = cardNumberCipher.encrypt(cardNumber);
+                reencrypted.add(new ReencryptedCard(row.id(), row.keyVersion(), ciphertext.data(),
+                    ciphertext.keyVersion(), CardNumberUtil.lastFour(cardNumber)));
+            } catch (CardEncryptingException e) {
+                log.warn("Skipping card {} in re-encryption: {}", row.id(), e.getMessage());
+                failedIds.add(row.id());
+            }
+        }
+
+        int updated = reencrypted.isEmpty() ? 0 : reencryptionRepository.updateCardNumbers(reencrypted);
+        reencryptionRepository.saveProgress(keyVersion, new Progress(toId, false));
+        reencryptedRows.increment(updated);
+        failedRows.increment(failedIds.size());
+        return new ChunkResult(updated, failedIds);
+    }
+
+    private void throttle(long rows, long startedNanos) {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = TimeUnit.SECONDS.toNanos(rows) / maxRowsPerSecond;
+        long sleepNanos = budgetNanos - (System.nanoTime() - startedNanos);
+        if (sleepNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record ChunkResult(int updated, List<Long> failedIds) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.bankcards.service.limit;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.SpendLimitExceededException;
+import com.example.bankcards.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Enforces per-card daily and monthly outgoing limits with Redis counters kept in cents. The check
+ * and both increments run in one Lua script, so concurrent transfers cannot overshoot a limit.
+ * A missing counter (first transfer of the period or a Redis flush) is rebuilt from the
+ * transactions table before the check is retried. Every rebuilt counter gets a new epoch, and a
+ * reservation is only released from counters that still have the epoch it was made in.
+ */
+@Service
+@Slf4j
+public class SpendLimitService {
+    private static final String DAILY_KEY_PREFIX = "spend:day:";
+    private static final String MONTHLY_KEY_PREFIX = "spend:month:";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Duration EXPIRY_SLACK = Duration.ofHours(1);
+    private static final String NEEDS_REBUILD = "-1";
+    private static final String RESERVED = "1";
+
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionRepository transactionRepository;
+    private final BigDecimal defaultDailyLimit;
+    private final BigDecimal defaultMonthlyLimit;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> reserveScript =
+        RedisScript.of(new ClassPathResource("scripts/spend-limit-reserve.lua"), List.class);
+    private final RedisScript<Long> releaseScript =
+        RedisScript.of(new ClassPathResource("scripts/spend-limit-release.lua"), Long.class);
+    private final RedisScript<Long> seedScript =
+        RedisScript.of(new ClassPathResource("scripts/spend-limit-seed.lua"), Long.class);
+
+    public SpendLimitService(StringRedisTemplate redisTemplate,
+                             TransactionRepository transactionRepository,
+                             @Value("${spend-limit.default-daily}") BigDecimal defaultDailyLimit,
+                             @Value("${spend-limit.default-monthly}") BigDecimal defaultMonthlyLimit) {
+        this.redisTemplate = redisTemplate;
+        this.transactionRepository = transactionRepository;
+        this.defaultDailyLimit = defaultDailyLimit;
+        this.defaultMonthlyLimit = defaultMonthlyLimit;
+    }
+
+    /**
+     * Reserves {@code amount} against the limits of {@code card}, which the caller has already loaded
+     * and checked inside its transfer transaction. The reservation is released when that transaction
+     * does not commit.
+     */
+    public void reserve(Card card, BigDecimal amount) {
+        Long cardId = card.getId();
+        LocalDateTime now = LocalDateTime.now();
+        String dailyKey = DAILY_KEY_PREFIX + cardId + ":" + now.format(DAY);
+        String monthlyKey = MONTHLY_KEY_PREFIX + cardId + ":" + now.format(MONTH);
+        List<String> keys = List.of(dailyKey, monthlyKey);
+        String amountCents = String.valueOf(toCents(amount));
+        String dailyLimit = String.valueOf(toCents(Objects.requireNonNullElse(card.getDailyLimit(), defaultDailyLimit)));
+        String monthlyLimit = String.valueOf(toCents(Objects.requireNonNullElse(card.getMonthlyLimit(), defaultMonthlyLimit)));
+
+        List<String> result = runReserve(keys, amountCents, dailyLimit, monthlyLimit);
+        if (NEEDS_REBUILD.equals(result.get(0))) {
+            rebuild(cardId, now, dailyKey, monthlyKey);
+            result = runReserve(keys, amountCents, dailyLimit, monthlyLimit);
+        }
+        if (!RESERVED.equals(result.get(0))) {
+            throw new SpendLimitExceededException();
+        }
+
+        SpendReservation reservation = new SpendReservation(dailyKey, result.get(1), monthlyKey, result.get(2), toCents(amount));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(reservation);
+                }
+            }
+        });
+    }
+
+    void release(SpendReservation reservation) {
+        try {
+            redisTemplate.execute(releaseScript, List.of(reservation.dailyKey(), reservation.monthlyKey()),
+                String.valueOf(reservation.amountCents()), reservation.dailyEpoch(), reservation.monthlyEpoch());
+        } catch (RuntimeException e) {
+            log.warn("Could not release spend reservation on {}, the counters stay high until they expire",
+                reservation.dailyKey(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> runReserve(List<String> keys, String amountCents, String dailyLimit, String monthlyLimit) {
+        List<String> result = redisTemplate.execute(reserveScript, keys, amountCents, dailyLimit, monthlyLimit);
+        return result == null || result.isEmpty() ? List.of("0") : result;
+    }
+
+    private void rebuild(Long cardId, LocalDateTime now, String dailyKey, String monthlyKey) {
+        LocalDateTime dayStart = now.toLocalDate().atStartOfDay();
+        LocalDateTime monthStart = now.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime nextDay = dayStart.plusDays(1);
+        LocalDateTime nextMonth = monthStart.plusMonths(1);
+
+        seed(dailyKey, transactionRepository.sumOutgoingSince(cardId, dayStart), Duration.between(now, nextDay));
+        seed(monthlyKey, transactionRepository.sumOutgoingSince(cardId, monthStart), Duration.between(now, nextMonth));
+        log.info("Rebuilt spend counters for card {} from transactions", cardId);
+    }
+
+    private void seed(String key, BigDecimal spent, Duration untilPeriodEnd) {
+        redisTemplate.execute(seedScript, List.of(key), String.valueOf(toCents(spent)), UUID.randomUUID().toString(),
+            String.valueOf(untilPeriodEnd.plus(EXPIRY_SLACK).toMillis()));
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.CEILING).movePointRight(2).longValueExact();
+    }
+}
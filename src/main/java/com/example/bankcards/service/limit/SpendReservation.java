@@ -0,0 +1,9 @@
+package com.example.bankcards.service.limit;
+
+/**
+ * An amount added to both counters, with the epoch each counter had at that moment, so it is only ever
+ * taken back from the counters that contain it.
+ */
+public record SpendReservation(String dailyKey, String dailyEpoch, String monthlyKey, String monthlyEpoch,
+                               long amountCents) {
+}
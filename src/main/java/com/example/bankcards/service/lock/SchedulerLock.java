@@ -0,0 +1,27 @@
+package com.example.bankcards.service.lock;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a scheduled method on at most one node at a time. Nodes that find the lease held skip the run.
+ * Durations accept ISO-8601 ({@code PT10M}) or the simple form ({@code 10m}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SchedulerLock {
+    String name();
+
+    /**
+     * Lease length; if the holder dies the lock frees itself after this long.
+     */
+    String lockAtMostFor();
+
+    /**
+     * Minimum time the lock stays taken after the run starts, so a node whose trigger fires a little
+     * later does not repeat a run that already finished.
+     */
+    String lockAtLeastFor() default "0s";
+}
@@ -0,0 +1,66 @@
+package com.example.bankcards.service.lock;
+
+import com.example.bankcards.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Wraps {@link SchedulerLock} methods in a lease taken from {@code main.scheduler_locks}. Ordered
+ * ahead of the transaction advisor, so the lease is committed before the job's own transaction starts.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class SchedulerLockAspect {
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+
+    public SchedulerLockAspect(SchedulerLockRepository schedulerLockRepository, MeterRegistry meterRegistry) {
+        this(schedulerLockRepository, meterRegistry, ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    SchedulerLockAspect(SchedulerLockRepository schedulerLockRepository, MeterRegistry meterRegistry, String nodeId) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId;
+    }
+
+    @Around("@annotation(schedulerLock)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, SchedulerLock schedulerLock) throws Throwable {
+        String name = schedulerLock.name();
+        Duration lockAtMostFor = DurationStyle.detectAndParse(schedulerLock.lockAtMostFor());
+        Duration lockAtLeastFor = DurationStyle.detectAndParse(schedulerLock.lockAtLeastFor());
+
+        if (!schedulerLockRepository.tryAcquire(name, lockAtMostFor, nodeId)) {
+            meterRegistry.counter("scheduler.lock", "name", name, "result", "skipped").increment();
+            log.debug("Skipping {}: lock is held by another node", name);
+            return null;
+        }
+        meterRegistry.counter("scheduler.lock", "name", name, "result", "acquired").increment();
+
+        boolean succeeded = false;
+        try {
+            Object result = joinPoint.proceed();
+            succeeded = true;
+            return result;
+        } finally {
+            try {
+                schedulerLockRepository.release(name, lockAtLeastFor, nodeId, succeeded);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release scheduler lock {}, it expires after {}", name, lockAtMostFor, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.CardBlockedException;
+import com.example.bankcards.exception.CardExpiredException;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+abstract class AbstractTransferStrategy implements TransferStrategy {
+    protected final CardRepository cardRepository;
+    protected final TransactionRepository transactionRepository;
+    protected final SpendLimitService spendLimitService;
+
+    protected AbstractTransferStrategy(CardRepository cardRepository, TransactionRepository transactionRepository,
+                                       SpendLimitService spendLimitService) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.spendLimitService = spendLimitService;
+    }
+
+    protected Card findOwnedCard(Long cardId, Long userId) {
+        Card card = cardRepository.findById(cardId)
+            .orElseThrow(CardNotFoundException::new);
+        return checkOwner(card, userId);
+    }
+
+    protected Card checkOwner(Card card, Long userId) {
+        if (!card.getUser().getId().equals(userId)) {
+            throw new CardNotFoundException();
+        }
+        return card;
+    }
+
+    protected Transaction applyTransfer(Card fromCard, Card toCard, CreateTransactionRequestDTO requestDTO,
+                                        String idempotencyKey) {
+        validateCardForTransaction(fromCard);
+        validateCardForTransaction(toCard);
+
+        BigDecimal amount = requestDTO.getAmount();
+        if (availableBalance(fromCard).compareTo(amount) < 0) {
+            throw new InsufficientFundsException();
+        }
+        spendLimitService.reserve(fromCard, amount);
+
+        fromCard.setBalance(fromCard.getBalance().subtract(amount));
+        toCard.setBalance(toCard.getBalance().add(amount));
+
+        return saveTransaction(fromCard, toCard, requestDTO, idempotencyKey);
+    }
+
+    /**
+     * Balance the transfer is checked against. Only ledger mode leaves entries outside {@code cards.balance},
+     * so the other strategies compare the balance as loaded.
+     */
+    protected BigDecimal availableBalance(Card card) {
+        return card.getBalance();
+    }
+
+    protected Transaction saveTransaction(Card fromCard, Card toCard, CreateTransactionRequestDTO requestDTO,
+                                          String idempotencyKey) {
+        return transactionRepository.save(newTransaction(fromCard, toCard, requestDTO, idempotencyKey));
+    }
+
+    protected Transaction newTransaction(Card fromCard, Card toCard, CreateTransactionRequestDTO requestDTO,
+                                         String idempotencyKey) {
+        Transaction transaction = new Transaction();
+        transaction.setFromCard(fromCard);
+        transaction.setToCard(toCard);
+        transaction.setAmount(requestDTO.getAmount());
+        transaction.setDescription(requestDTO.getDescription());
+        transaction.setIdempotencyKey(idempotencyKey);
+        return transaction;
+    }
+
+    protected void validateCardForTransaction(Card card) {
+        if (card.getStatus() == CardStatus.BLOCKED) {
+            throw new CardBlockedException();
+        }
+        if (card.getStatus() == CardStatus.EXPIRED) {
+            throw new CardExpiredException();
+        }
+        if (card.getExpiryDate().isBefore(LocalDate.now())) {
+            throw new CardExpiredException();
+        }
+    }
+}
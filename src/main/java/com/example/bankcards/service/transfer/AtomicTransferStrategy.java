@@ -0,0 +1,60 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Moves money with two conditional UPDATE statements instead of read-modify-write, so the
+ * balance check and the write happen under the same row lock. The updates are issued in
+ * ascending card id order to keep lock acquisition deadlock-free.
+ */
+@Component
+public class AtomicTransferStrategy extends AbstractTransferStrategy {
+
+    public AtomicTransferStrategy(CardRepository cardRepository, TransactionRepository transactionRepository,
+                                  SpendLimitService spendLimitService) {
+        super(cardRepository, transactionRepository, spendLimitService);
+    }
+
+    @Override
+    public TransferStrategyType getType() {
+        return TransferStrategyType.ATOMIC;
+    }
+
+    @Override
+    @Transactional
+    public Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO, String idempotencyKey) {
+        Card fromCard = findOwnedCard(requestDTO.getFromCardId(), userId);
+        Card toCard = findOwnedCard(requestDTO.getToCardId(), userId);
+
+        validateCardForTransaction(fromCard);
+        validateCardForTransaction(toCard);
+
+        BigDecimal amount = requestDTO.getAmount();
+        spendLimitService.reserve(fromCard, amount);
+        if (fromCard.getId() <= toCard.getId()) {
+            debit(fromCard.getId(), amount);
+            cardRepository.credit(toCard.getId(), amount);
+        } else {
+            cardRepository.credit(toCard.getId(), amount);
+            debit(fromCard.getId(), amount);
+        }
+
+        return saveTransaction(fromCard, toCard, requestDTO, idempotencyKey);
+    }
+
+    private void debit(Long cardId, BigDecimal amount) {
+        if (cardRepository.debitIfSufficient(cardId, amount) == 0) {
+            throw new InsufficientFundsException();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Records the transfer as an immutable ledger entry and leaves {@code cards.balance} untouched;
+ * {@link com.example.bankcards.service.LedgerCompactor} later folds pending entries into the balance.
+ * Only the source card is locked, so credits to a popular card never queue on its row.
+ */
+@Component
+public class LedgerTransferStrategy extends AbstractTransferStrategy {
+
+    public LedgerTransferStrategy(CardRepository cardRepository, TransactionRepository transactionRepository,
+                                  SpendLimitService spendLimitService) {
+        super(cardRepository, transactionRepository, spendLimitService);
+    }
+
+    @Override
+    public TransferStrategyType getType() {
+        return TransferStrategyType.LEDGER;
+    }
+
+    /**
+     * Balance plus ledger entries not yet compacted into it. Queried in its own statement, so with the
+     * card row locked it also sees entries committed while the lock was awaited.
+     */
+    @Override
+    protected BigDecimal availableBalance(Card card) {
+        return card.getBalance().add(transactionRepository.sumPendingLedgerDelta(card.getId()));
+    }
+
+    @Override
+    @Transactional
+    public Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO, String idempotencyKey) {
+        Card fromCard = checkOwner(cardRepository.findByIdForUpdate(requestDTO.getFromCardId())
+            .orElseThrow(CardNotFoundException::new), userId);
+        Card toCard = findOwnedCard(requestDTO.getToCardId(), userId);
+
+        validateCardForTransaction(fromCard);
+        validateCardForTransaction(toCard);
+
+        // Re-read pending entries after the lock: the formula value on the entity was taken
+        // from the statement snapshot before the lock was granted.
+        if (availableBalance(fromCard).compareTo(requestDTO.getAmount()) < 0) {
+            throw new InsufficientFundsException();
+        }
+        spendLimitService.reserve(fromCard, requestDTO.getAmount());
+
+        Transaction transaction = newTransaction(fromCard, toCard, requestDTO, idempotencyKey);
+        transaction.setLedger(true);
+        return transactionRepository.save(transaction);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.TransferConflictException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reads both cards without locks and relies on {@code Card.version} to detect a concurrent write.
+ * Every attempt runs in its own transaction; conflicts are retried with exponential backoff
+ * and full jitter until {@code transfer.optimistic.max-attempts} is reached.
+ */
+@Component
+@Slf4j
+public class OptimisticTransferStrategy extends AbstractTransferStrategy {
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticTransferStrategy(CardRepository cardRepository,
+                                      TransactionRepository transactionRepository,
+                                      SpendLimitService spendLimitService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${transfer.optimistic.max-attempts}") int maxAttempts,
+                                      @Value("${transfer.optimistic.backoff-ms}") long backoffMs) {
+        super(cardRepository, transactionRepository, spendLimitService);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    @Override
+    public TransferStrategyType getType() {
+        return TransferStrategyType.OPTIMISTIC;
+    }
+
+    @Override
+    public Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO, String idempotencyKey) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Card fromCard = findOwnedCard(requestDTO.getFromCardId(), userId);
+                    Card toCard = findOwnedCard(requestDTO.getToCardId(), userId);
+                    return applyTransfer(fromCard, toCard, requestDTO, idempotencyKey);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Transfer from card {} gave up after {} conflicting attempts", requestDTO.getFromCardId(), attempt);
+                    throw new TransferConflictException();
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferConflictException();
+        }
+    }
+}
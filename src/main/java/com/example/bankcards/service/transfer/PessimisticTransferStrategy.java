@@ -0,0 +1,93 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.CardBlockedException;
+import com.example.bankcards.exception.CardExpiredException;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.SpendLimitExceededException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Locks both cards with SELECT ... FOR UPDATE. Rows are always locked in ascending id order,
+ * so two opposite transfers between the same cards can never deadlock. {@link #transferBatch} extends
+ * the same ordering to every card of a micro-batch and commits the whole batch at once.
+ */
+@Component
+public class PessimisticTransferStrategy extends AbstractTransferStrategy {
+
+    public PessimisticTransferStrategy(CardRepository cardRepository, TransactionRepository transactionRepository,
+                                       SpendLimitService spendLimitService) {
+        super(cardRepository, transactionRepository, spendLimitService);
+    }
+
+    @Override
+    public TransferStrategyType getType() {
+        return TransferStrategyType.PESSIMISTIC;
+    }
+
+    @Override
+    @Transactional
+    public Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO, String idempotencyKey) {
+        Long fromCardId = requestDTO.getFromCardId();
+        Long toCardId = requestDTO.getToCardId();
+
+        Card first = lockCard(Math.min(fromCardId, toCardId));
+        Card second = fromCardId.equals(toCardId) ? first : lockCard(Math.max(fromCardId, toCardId));
+
+        Card fromCard = checkOwner(first.getId().equals(fromCardId) ? first : second, userId);
+        Card toCard = checkOwner(first.getId().equals(toCardId) ? first : second, userId);
+
+        return applyTransfer(fromCard, toCard, requestDTO, idempotencyKey);
+    }
+
+    @Transactional
+    public List<TransferOutcome> transferBatch(List<QueuedTransfer> transfers) {
+        Map<Long, Card> lockedCards = new HashMap<>();
+        transfers.stream()
+            .flatMap(transfer -> Stream.of(transfer.request().getFromCardId(), transfer.request().getToCardId()))
+            .distinct()
+            .sorted()
+            .forEach(cardId -> cardRepository.findByIdForUpdate(cardId)
+                .ifPresent(card -> lockedCards.put(cardId, card)));
+
+        List<TransferOutcome> outcomes = new ArrayList<>(transfers.size());
+        for (QueuedTransfer transfer : transfers) {
+            CreateTransactionRequestDTO requestDTO = transfer.request();
+            try {
+                Card fromCard = checkOwner(lockedCard(lockedCards, requestDTO.getFromCardId()), transfer.userId());
+                Card toCard = checkOwner(lockedCard(lockedCards, requestDTO.getToCardId()), transfer.userId());
+                outcomes.add(TransferOutcome.completed(transfer, applyTransfer(fromCard, toCard, requestDTO, null)));
+            } catch (CardNotFoundException | CardBlockedException | CardExpiredException | InsufficientFundsException
+                     | SpendLimitExceededException e) {
+                outcomes.add(TransferOutcome.failed(transfer, e.getMessage()));
+            }
+        }
+        return outcomes;
+    }
+
+    private Card lockedCard(Map<Long, Card> lockedCards, Long cardId) {
+        Card card = lockedCards.get(cardId);
+        if (card == null) {
+            throw new CardNotFoundException();
+        }
+        return card;
+    }
+
+    private Card lockCard(Long cardId) {
+        return cardRepository.findByIdForUpdate(cardId)
+            .orElseThrow(CardNotFoundException::new);
+    }
+}
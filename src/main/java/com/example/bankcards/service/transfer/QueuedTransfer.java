@@ -0,0 +1,6 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+
+public record QueuedTransfer(String transferId, Long userId, CreateTransactionRequestDTO request) {
+}
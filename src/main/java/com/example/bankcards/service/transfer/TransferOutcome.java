@@ -0,0 +1,14 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.entity.Transaction;
+
+public record TransferOutcome(QueuedTransfer transfer, Transaction transaction, String error) {
+
+    public static TransferOutcome completed(QueuedTransfer transfer, Transaction transaction) {
+        return new TransferOutcome(transfer, transaction, null);
+    }
+
+    public static TransferOutcome failed(QueuedTransfer transfer, String error) {
+        return new TransferOutcome(transfer, null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Transaction;
+
+public interface TransferStrategy {
+    TransferStrategyType getType();
+
+    default Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO) {
+        return transfer(userId, requestDTO, null);
+    }
+
+    /**
+     * @param idempotencyKey stored on the transaction in the same database transaction, or {@code null}
+     */
+    Transaction transfer(Long userId, CreateTransactionRequestDTO requestDTO, String idempotencyKey);
+}
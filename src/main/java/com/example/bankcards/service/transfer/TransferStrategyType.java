@@ -0,0 +1,8 @@
+package com.example.bankcards.service.transfer;
+
+public enum TransferStrategyType {
+    PESSIMISTIC,
+    OPTIMISTIC,
+    ATOMIC,
+    LEDGER
+}
@@ -0,0 +1,83 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.CardEncryptingException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES/CBC card number encryption with the setup cost paid once: the key is derived on construction,
+ * each thread keeps its own {@link Cipher} (they are not thread-safe) and IVs come from one shared
+ * {@link SecureRandom}. The ciphertext layout is IV followed by the encrypted bytes.
+ */
+public final class CardCryptoEngine {
+    private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final int IV_LENGTH = 16;
+
+    private final SecretKeySpec secretKey;
+    private final SecureRandom random;
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(CardCryptoEngine::newCipher);
+
+    public CardCryptoEngine(String secret, SecureRandom random) {
+        this.secretKey = deriveKey(secret);
+        this.random = random;
+    }
+
+    public byte[] encrypt(String cardNumber) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new IvParameterSpec(iv));
+            byte[] plainBytes = cardNumber.getBytes(StandardCharsets.UTF_8);
+            byte[] ivAndEncryptedBytes = new byte[IV_LENGTH + cipher.getOutputSize(plainBytes.length)];
+            System.arraycopy(iv, 0, ivAndEncryptedBytes, 0, IV_LENGTH);
+            cipher.doFinal(plainBytes, 0, plainBytes.length, ivAndEncryptedBytes, IV_LENGTH);
+
+            return ivAndEncryptedBytes;
+        } catch (Exception e) {
+            throw new CardEncryptingException("Card encoding error", e);
+        }
+    }
+
+    public String decrypt(byte[] ivAndEncryptedBytes) {
+        try {
+            if (ivAndEncryptedBytes == null || ivAndEncryptedBytes.length <= IV_LENGTH) {
+                throw new CardEncryptingException("Invalid encrypted data");
+            }
+
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new IvParameterSpec(ivAndEncryptedBytes, 0, IV_LENGTH));
+            byte[] decryptedBytes = cipher.doFinal(ivAndEncryptedBytes, IV_LENGTH, ivAndEncryptedBytes.length - IV_LENGTH);
+            return new String(decryptedBytes, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new CardEncryptingException("Card decrypting error", e);
+        }
+    }
+
+    private static SecretKeySpec deriveKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(Arrays.copyOf(hash, 16), "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CardEncryptingException("Card key derivation error", e);
+        }
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new CardEncryptingException("Cipher initialization error", e);
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.example.bankcards.util;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
@@ -36,7 +39,7 @@ public class CardSpecification {
         if (balance == null) {
             return null;
         }
-        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("balance"), balance);
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(currentBalance(root, builder), balance);
     }
 
 
@@ -44,7 +47,11 @@ public class CardSpecification {
         if (balance == null) {
             return null;
         }
-        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("balance"), balance);
+        return (root, query, builder) -> builder.lessThanOrEqualTo(currentBalance(root, builder), balance);
+    }
+
+    private static Expression<BigDecimal> currentBalance(Root<Card> root, CriteriaBuilder builder) {
+        return builder.sum(root.<BigDecimal>get("balance"), root.<BigDecimal>get("ledgerDelta"));
     }
 
     public static Specification<Card> expiryDateIsAfter(LocalDate date) {
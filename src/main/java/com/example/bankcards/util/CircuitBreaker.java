@@ -0,0 +1,75 @@
+package com.example.bankcards.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal circuit breaker. Opens after {@code failureThreshold} consecutive failures and rejects calls
+ * for {@code openDurationMs}; then lets a single probe through, which closes it on success and reopens
+ * it on failure.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier clock;
+
+    private volatile State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMs) {
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether this success closed a breaker that was not closed before.
+     */
+    public synchronized boolean recordSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.CLOSED) {
+            return false;
+        }
+        state = State.CLOSED;
+        return true;
+    }
+
+    /**
+     * Returns whether this failure opened the breaker.
+     */
+    public synchronized boolean recordFailure() {
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            consecutiveFailures = 0;
+            return true;
+        }
+        return false;
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,7 @@
+-- KEYS[1] expiry index; ARGV[1] max score (epoch day), ARGV[2] batch size
+-- Removes and returns up to batch size card ids that are due
+local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #ids > 0 then
+    redis.call('ZREM', KEYS[1], unpack(ids))
+end
+return ids
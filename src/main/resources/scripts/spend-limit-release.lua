@@ -0,0 +1,9 @@
+-- KEYS[1] daily counter, KEYS[2] monthly counter; ARGV[1] amount (cents), ARGV[2] daily epoch, ARGV[3] monthly epoch
+-- A counter is only decremented while it still has the epoch it was reserved in: one that expired,
+-- was flushed or was rebuilt from transactions in the meantime never contained the reservation
+for i, key in ipairs(KEYS) do
+    if redis.call('HGET', key, 'epoch') == ARGV[i + 1] then
+        redis.call('HINCRBY', key, 'spent', -tonumber(ARGV[1]))
+    end
+end
+return 1
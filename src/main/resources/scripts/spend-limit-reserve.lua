@@ -0,0 +1,18 @@
+-- KEYS[1] daily counter, KEYS[2] monthly counter: hashes of spent (cents) and epoch
+-- ARGV[1] amount, ARGV[2] daily limit, ARGV[3] monthly limit (cents)
+-- Returns {'1', daily epoch, monthly epoch} when reserved, {'0'} when a limit would be exceeded,
+-- {'-1'} when a counter has to be rebuilt
+local daily = redis.call('HMGET', KEYS[1], 'spent', 'epoch')
+local monthly = redis.call('HMGET', KEYS[2], 'spent', 'epoch')
+if not daily[1] or not monthly[1] then
+    return {'-1'}
+end
+
+local amount = tonumber(ARGV[1])
+if tonumber(daily[1]) + amount > tonumber(ARGV[2]) or tonumber(monthly[1]) + amount > tonumber(ARGV[3]) then
+    return {'0'}
+end
+
+redis.call('HINCRBY', KEYS[1], 'spent', amount)
+redis.call('HINCRBY', KEYS[2], 'spent', amount)
+return {'1', daily[2], monthly[2]}
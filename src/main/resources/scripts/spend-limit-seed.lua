@@ -0,0 +1,8 @@
+-- KEYS[1] counter; ARGV[1] spent (cents), ARGV[2] new epoch, ARGV[3] time to live (ms)
+-- Seeds a missing counter; one that another node seeded first is left as it is
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'spent', ARGV[1], 'epoch', ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+return 1
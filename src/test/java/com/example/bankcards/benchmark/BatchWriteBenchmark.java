@@ -0,0 +1,154 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.RoleEnum;
+import com.example.bankcards.support.PostgresContainerSupport;
+import com.example.bankcards.util.CardNumberUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes 10k cards and then expires them, once with a JDBC batch size of 1 (one statement per row,
+ * as with IDENTITY ids) and once with the configured batch size. Statement executions are counted
+ * by wrapping the DataSource, so the printed round-trips include sequence fetches.
+ * <p>
+ * Run with: {@code mvn test -Dtest=BatchWriteBenchmark -Dbenchmark=true} (requires Docker).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchWriteBenchmark extends PostgresContainerSupport {
+    private static final int ROWS = 10_000;
+    private static final int CONFIGURED_BATCH_SIZE = 50;
+    private static final Set<String> EXECUTE_METHODS =
+        Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareRowByRowAndBatchedWrites() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        User user = transactionTemplate.execute(status -> createUser());
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %-7s %10s %12s", "batch", "write", "rows/s", "round-trips"));
+
+        for (int batchSize : new int[]{1, CONFIGURED_BATCH_SIZE}) {
+            List<Long> ids = new ArrayList<>(ROWS);
+            Run insert = measure(() -> transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int i = 0; i < ROWS; i++) {
+                    Card card = newCard(user);
+                    entityManager.persist(card);
+                    ids.add(card.getId());
+                }
+            }));
+            Run update = measure(() -> transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                entityManager.createQuery("SELECT c FROM Card c WHERE c.id IN :ids", Card.class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(card -> card.setStatus(CardStatus.EXPIRED));
+            }));
+
+            report.add(String.format("%-10d %-7s %10.0f %12d", batchSize, "insert", insert.rowsPerSecond(), insert.roundTrips()));
+            report.add(String.format("%-10d %-7s %10.0f %12d", batchSize, "update", update.rowsPerSecond(), update.roundTrips()));
+            if (batchSize > 1) {
+                assertTrue(insert.roundTrips() < ROWS / 10, "Inserts were not batched");
+                assertTrue(update.roundTrips() < ROWS / 10, "Updates were not batched");
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private Run measure(Runnable write) {
+        long roundTripsBefore = ROUND_TRIPS.get();
+        long begin = System.nanoTime();
+        write.run();
+        long elapsed = System.nanoTime() - begin;
+        return new Run(ROWS / (elapsed / 1e9), ROUND_TRIPS.get() - roundTripsBefore);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Benchmark");
+        user.setEmail(UUID.randomUUID() + "@bench.local");
+        user.setPassword("not-used");
+        user.setRole(RoleEnum.USER);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Card newCard(User user) {
+        Card card = new Card();
+        card.setCardNumber(CardNumberUtil.encryptCardNumber(CardNumberUtil.generateCardNumber()));
+        card.setCardHolder("BENCHMARK");
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setBalance(BigDecimal.ZERO);
+        card.setUser(user);
+        return card;
+    }
+
+    private record Run(double rowsPerSecond, long roundTrips) {
+    }
+
+    @TestConfiguration
+    static class RoundTripCountingConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        private static Object wrap(Object target, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Class<?> returnType = method.getReturnType();
+                if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                    return wrap(result, returnType);
+                }
+                return result;
+            });
+        }
+    }
+}
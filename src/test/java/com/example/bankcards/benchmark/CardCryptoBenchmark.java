@@ -0,0 +1,120 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypt, decrypt and decrypt-and-mask throughput of {@link CardNumberUtil} against the previous
+ * implementation, which derived the key, looked up the cipher and seeded a SecureRandom on every call.
+ * <p>
+ * Run with {@code mvn test -Dtest=CardCryptoBenchmark -Dbenchmark=true}; each thread count is a separate JMH run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardCryptoBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 8, 32};
+
+    @Param({"cached", "per-call"})
+    public String engine;
+
+    private String cardNumber;
+    private byte[] encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        cardNumber = CardNumberUtil.generateCardNumber();
+        encrypted = encrypt(cardNumber);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return encrypt(cardNumber);
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String decryptAndMask() throws Exception {
+        return CardNumberUtil.maskCardNumber(decrypt(encrypted));
+    }
+
+    private byte[] encrypt(String value) throws Exception {
+        return "cached".equals(engine) ? CardNumberUtil.encryptCardNumber(value) : PerCallCrypto.encrypt(value);
+    }
+
+    private String decrypt(byte[] value) throws Exception {
+        return "cached".equals(engine) ? CardNumberUtil.decryptCardNumber(value) : PerCallCrypto.decrypt(value);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                .include(CardCryptoBenchmark.class.getName() + "\\.")
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static final class PerCallCrypto {
+        private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+        private static final String SECRET_KEY = "BankCardsSecretKey123";
+        private static final int IV_LENGTH = 16;
+
+        static byte[] encrypt(String cardNumber) throws Exception {
+            byte[] iv = new byte[IV_LENGTH];
+            new SecureRandom().nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, key(), new IvParameterSpec(iv));
+            byte[] encryptedBytes = cipher.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8));
+            byte[] result = Arrays.copyOf(iv, IV_LENGTH + encryptedBytes.length);
+            System.arraycopy(encryptedBytes, 0, result, IV_LENGTH, encryptedBytes.length);
+            return result;
+        }
+
+        static String decrypt(byte[] ivAndEncryptedBytes) throws Exception {
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, key(), new IvParameterSpec(ivAndEncryptedBytes, 0, IV_LENGTH));
+            byte[] encryptedBytes = Arrays.copyOfRange(ivAndEncryptedBytes, IV_LENGTH, ivAndEncryptedBytes.length);
+            return new String(cipher.doFinal(encryptedBytes), StandardCharsets.UTF_8);
+        }
+
+        private static SecretKeySpec key() throws Exception {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(Arrays.copyOf(hash, 16), "AES");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.entity.enums.RoleEnum;
+import com.example.bankcards.security.JWTCore;
+import com.example.bankcards.security.TokenFilter;
+import com.example.bankcards.security.UserDetailsCache;
+import com.example.bankcards.security.UserDetailsImpl;
+import com.example.bankcards.service.TokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Authenticates a request through {@link TokenFilter} with a parser built per call (the previous
+ * {@link JWTCore}), the shared parser alone, and the shared parser with the verified-claims cache.
+ * Requests pick one of {@code tokens} live tokens at random; the blacklist, token versions and user cache are stubs.
+ * <p>
+ * Run with {@code mvn test -Dtest=TokenAuthenticationBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenAuthenticationBenchmark {
+    private static final String SECRET = "benchmark_jwt_secret_key_for_hmac_sha_256_signing";
+    private static final long LIFETIME_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int CACHE_SIZE = 10_000;
+
+    @Param({"per-call", "shared", "cached"})
+    public String parser;
+
+    @Param({"1", "1000"})
+    public int tokens;
+
+    private TokenFilter filter;
+    private String[] authorizationHeaders;
+
+    @Setup
+    public void setUp() {
+        JWTCore jwtCore = switch (parser) {
+            case "per-call" -> new PerCallJwtCore();
+            case "shared" -> new JWTCore(SECRET, LIFETIME_MS, 0);
+            default -> new JWTCore(SECRET, LIFETIME_MS, CACHE_SIZE);
+        };
+        TokenService tokenService = mock(TokenService.class);
+        when(tokenService.isTokenBlacklisted(any(), any())).thenReturn(false);
+        UserDetailsService userDetailsService = email ->
+            new UserDetailsImpl(1L, "User", email, "password", RoleEnum.USER, true);
+        UserDetailsCache userDetailsCache = mock(UserDetailsCache.class);
+        when(userDetailsCache.get(any())).thenAnswer(i -> Optional.of(
+            new UserDetailsImpl(i.getArgument(0), "User", "user@example.com", "password", RoleEnum.USER, true)));
+        filter = new TokenFilter(jwtCore, userDetailsService, userDetailsCache, tokenService);
+
+        authorizationHeaders = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            UserDetailsImpl user = new UserDetailsImpl((long) i, "User", "user" + i + "@example.com", "password", RoleEnum.USER, true);
+            String token = jwtCore.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            authorizationHeaders[i] = "Bearer " + token;
+        }
+    }
+
+    @Benchmark
+    public int authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cards");
+        request.addHeader("Authorization", authorizationHeaders[ThreadLocalRandom.current().nextInt(tokens)]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        for (int threads : new int[]{1, 8}) {
+            Options options = new OptionsBuilder()
+                .include(TokenAuthenticationBenchmark.class.getName() + "\\.")
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static final class PerCallJwtCore extends JWTCore {
+        private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+        PerCallJwtCore() {
+            super(SECRET, LIFETIME_MS, 0);
+        }
+
+        @Override
+        public Claims parseClaims(String token) {
+            return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.entity.enums.RoleEnum;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.transfer.TransferStrategy;
+import com.example.bankcards.support.PostgresContainerSupport;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same multi-threaded transfer load through every {@link TransferStrategy} and prints
+ * throughput and p99 latency. "hot" makes all threads fight over two cards, "cold" gives each
+ * thread its own pair. The total balance is checked after each run to prove no update was lost.
+ * <p>
+ * Run with: {@code mvn test -Dtest=TransferContentionBenchmark -Dbenchmark=true} (requires Docker).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=40")
+class TransferContentionBenchmark extends PostgresContainerSupport {
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 300;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+    @Autowired
+    private List<TransferStrategy> strategies;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    void compareStrategiesUnderContention() throws Exception {
+        User user = createUser();
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-12s %-5s %12s %10s %10s %10s", "strategy", "set", "transfers/s", "p50 ms", "p99 ms", "failed"));
+
+        for (TransferStrategy strategy : strategies) {
+            for (boolean hot : new boolean[]{true, false}) {
+                List<Card> cards = createCards(user, hot ? 2 : THREADS * 2);
+                BigDecimal totalBefore = totalBalance(cards);
+
+                RunResult result = run(strategy, user, cards, hot);
+
+                assertEquals(0, totalBefore.compareTo(totalBalance(cards)), "Balance was lost under " + strategy.getType());
+                report.add(String.format("%-12s %-5s %12.1f %10.2f %10.2f %10d",
+                    strategy.getType(), hot ? "hot" : "cold",
+                    result.throughput(), result.percentileMs(0.50), result.percentileMs(0.99), result.failed()));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private RunResult run(TransferStrategy strategy, User user, List<Card> cards, boolean hot) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        long[][] latencies = new long[THREADS][TRANSFERS_PER_THREAD];
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Card from;
+                    Card to;
+                    if (hot) {
+                        boolean forward = ThreadLocalRandom.current().nextBoolean();
+                        from = cards.get(forward ? 0 : 1);
+                        to = cards.get(forward ? 1 : 0);
+                    } else {
+                        from = cards.get(2 * thread + (i % 2));
+                        to = cards.get(2 * thread + 1 - (i % 2));
+                    }
+                    CreateTransactionRequestDTO request =
+                        new CreateTransactionRequestDTO(from.getId(), to.getId(), BigDecimal.ONE, "benchmark");
+                    long begin = System.nanoTime();
+                    try {
+                        strategy.transfer(user.getId(), request);
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[thread][i] = System.nanoTime() - begin;
+                }
+                return null;
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        int succeeded = all.length - failed.get();
+        return new RunResult(succeeded / (elapsed / 1e9), all, failed.get());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Benchmark");
+        user.setEmail(UUID.randomUUID() + "@bench.local");
+        user.setPassword("not-used");
+        user.setRole(RoleEnum.USER);
+        return userRepository.save(user);
+    }
+
+    private List<Card> createCards(User user, int count) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Card card = new Card();
+            card.setCardNumber(CardNumberUtil.encryptCardNumber(CardNumberUtil.generateCardNumber()));
+            card.setCardHolder("BENCHMARK");
+            card.setExpiryDate(LocalDate.now().plusYears(3));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setBalance(INITIAL_BALANCE);
+            card.setUser(user);
+            cards.add(card);
+        }
+        return cardRepository.saveAll(cards);
+    }
+
+    private BigDecimal totalBalance(List<Card> cards) {
+        return cardRepository.findAllById(cards.stream().map(Card::getId).toList()).stream()
+            .map(Card::getBalance)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private record RunResult(double throughput, long[] sortedLatenciesNanos, int failed) {
+        double percentileMs(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatenciesNanos.length) - 1;
+            return sortedLatenciesNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.example.bankcards.security.JWTCore;
 import com.example.bankcards.security.TokenFilter;
 import com.example.bankcards.security.UserDetailsImpl;
 import com.example.bankcards.security.UserDetailsServiceImpl;
+import com.example.bankcards.service.CardBulkIssueService;
 import com.example.bankcards.service.CardService;
 import com.example.bankcards.service.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -51,6 +52,8 @@ public class CardControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private CardService cardService;
+    @MockBean
+    private CardBulkIssueService cardBulkIssueService;
     @Autowired
     private ObjectMapper objectMapper;
     @MockBean
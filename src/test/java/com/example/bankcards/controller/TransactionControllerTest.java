@@ -9,7 +9,10 @@ import com.example.bankcards.security.JWTCore;
 import com.example.bankcards.security.TokenFilter;
 import com.example.bankcards.security.UserDetailsImpl;
 import com.example.bankcards.security.UserDetailsServiceImpl;
+import com.example.bankcards.service.AsyncTransferService;
+import com.example.bankcards.service.IdempotencyService;
 import com.example.bankcards.service.TokenService;
+import com.example.bankcards.service.TransactionExportService;
 import com.example.bankcards.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -48,6 +51,12 @@ public class TransactionControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private TransactionService transactionService;
+    @MockBean
+    private IdempotencyService idempotencyService;
+    @MockBean
+    private TransactionExportService transactionExportService;
+    @MockBean
+    private AsyncTransferService asyncTransferService;
     @Autowired
     private ObjectMapper objectMapper;
     @MockBean
@@ -0,0 +1,124 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.support.PostgresContainerSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds enough history for the planner to prefer indexes, then checks that the user history queries
+ * are served by the composite card/created_at indexes and issue the expected number of statements.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TransactionHistoryQueryPlanTest extends PostgresContainerSupport {
+    private static final long FIRST_USER_ID = 1_000;
+    private static final int USERS = 500;
+    private static final int CARDS_PER_USER = 2;
+    private static final long FIRST_CARD_ID = 10_000;
+    private static final int TRANSACTIONS = 200_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seed() {
+        int cards = USERS * CARDS_PER_USER;
+        jdbcTemplate.update("INSERT INTO main.users (id, name, email, password, role, is_active) " +
+            "SELECT ? + g, 'Plan User ' || g, 'plan-user-' || g || '@example.com', 'x', 'USER', true " +
+            "FROM generate_series(0, ? - 1) g", FIRST_USER_ID, USERS);
+        jdbcTemplate.update("INSERT INTO main.cards (id, card_number, card_holder, expiry_date, status, balance, created_at, user_id) " +
+            "SELECT ? + g, decode(md5(g::text), 'hex'), 'PLAN USER', CURRENT_DATE + 365, 'ACTIVE', 1000, now(), ? + g / ? " +
+            "FROM generate_series(0, ? - 1) g", FIRST_CARD_ID, FIRST_USER_ID, CARDS_PER_USER, cards);
+        jdbcTemplate.update("INSERT INTO main.transactions (id, from_card_id, to_card_id, amount, created_at, description) " +
+            "SELECT 1000000 + g, ? + (g * 7) % ?, ? + (g * 13 + 1) % ?, 1, now() - g * interval '1 second', 'plan' " +
+            "FROM generate_series(0, ? - 1) g", FIRST_CARD_ID, cards, FIRST_CARD_ID, cards, TRANSACTIONS);
+        jdbcTemplate.execute("ANALYZE main.users");
+        jdbcTemplate.execute("ANALYZE main.cards");
+        jdbcTemplate.execute("ANALYZE main.transactions");
+    }
+
+    @Test
+    void historyPageQuery_shouldUseCardIndexes() {
+        String plan = explain(TransactionRepository.HISTORY_PAGE_QUERY,
+            Map.of("userId", FIRST_USER_ID, "limit", 40L, "offset", 20L));
+
+        assertIndexPlan(plan);
+    }
+
+    @Test
+    void historyAfterQuery_shouldUseCardIndexes() {
+        String plan = explain(TransactionRepository.HISTORY_AFTER_QUERY,
+            Map.of("userId", FIRST_USER_ID, "createdAt", LocalDateTime.now().minusHours(1), "id", Long.MAX_VALUE, "limit", 21));
+
+        assertIndexPlan(plan);
+    }
+
+    @Test
+    @Transactional
+    void findByUserId_shouldMatchSortedJpqlAndIssueTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<Transaction> page = transactionRepository.findByUserId(FIRST_USER_ID, PageRequest.of(1, 20));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        Page<Transaction> expected = transactionRepository.findSortedByUserId(FIRST_USER_ID,
+            PageRequest.of(1, 20, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"))));
+        assertEquals(ids(expected.getContent()), ids(page.getContent()));
+        assertEquals(expected.getTotalElements(), page.getTotalElements());
+    }
+
+    @Test
+    @Transactional
+    void findHistoryAfter_shouldIssueSingleStatementWithoutCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Transaction> head = transactionRepository.findHistoryHead(FIRST_USER_ID, 20);
+        Transaction last = head.get(head.size() - 1);
+        statistics.clear();
+
+        List<Transaction> next = transactionRepository.findHistoryAfter(FIRST_USER_ID, last.getCreatedAt(), last.getId(), 20);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(next.isEmpty());
+        assertTrue(next.stream().noneMatch(head::contains));
+    }
+
+    private String explain(String query, Map<String, Object> params) {
+        return String.join("\n", namedParameterJdbcTemplate.queryForList("EXPLAIN " + query, params, String.class));
+    }
+
+    private void assertIndexPlan(String plan) {
+        assertTrue(plan.contains("idx_transactions_from_card_created_at"), plan);
+        assertTrue(plan.contains("idx_transactions_to_card_created_at"), plan);
+        assertFalse(plan.contains("Seq Scan on transactions"), plan);
+    }
+
+    private List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.enums.RoleEnum;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JWTCoreTest {
+    private static final String SECRET = "test_jwt_secret_key_for_testing_purposes_only";
+
+    @Test
+    void parseClaims_whenTokenRepeats_shouldReturnCachedClaims() {
+        JWTCore jwtCore = new JWTCore(SECRET, 60_000, 10);
+        String token = jwtCore.generateToken(authentication("user@example.com"));
+
+        Claims first = jwtCore.parseClaims(token);
+        Claims second = jwtCore.parseClaims(token);
+
+        assertSame(first, second);
+        assertEquals("user@example.com", first.getSubject());
+        assertNotNull(first.getId());
+    }
+
+    @Test
+    void parseClaims_whenSignatureIsTampered_shouldRejectDespiteCachedOriginal() {
+        JWTCore jwtCore = new JWTCore(SECRET, 60_000, 10);
+        String token = jwtCore.generateToken(authentication("user@example.com"));
+        jwtCore.parseClaims(token);
+
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char replaced = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signatureStart) + replaced + token.substring(signatureStart + 1);
+
+        assertThrows(SignatureException.class, () -> jwtCore.parseClaims(tampered));
+    }
+
+    @Test
+    void parseClaims_whenCachedTokenExpires_shouldReverifyAndReject() throws InterruptedException {
+        JWTCore jwtCore = new JWTCore(SECRET, 2_000, 10);
+        String token = jwtCore.generateToken(authentication("user@example.com"));
+        jwtCore.parseClaims(token);
+
+        Thread.sleep(2_100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtCore.parseClaims(token));
+    }
+
+    @Test
+    void parseClaims_whenCacheIsFull_shouldEvictLeastRecentlyUsedToken() {
+        JWTCore jwtCore = new JWTCore(SECRET, 60_000, 2);
+        String first = jwtCore.generateToken(authentication("first@example.com"));
+        String second = jwtCore.generateToken(authentication("second@example.com"));
+        String third = jwtCore.generateToken(authentication("third@example.com"));
+        Claims firstClaims = jwtCore.parseClaims(first);
+        Claims secondClaims = jwtCore.parseClaims(second);
+        jwtCore.parseClaims(first);
+
+        Claims thirdClaims = jwtCore.parseClaims(third);
+
+        assertEquals(2, jwtCore.claimsCacheSize());
+        assertSame(firstClaims, jwtCore.parseClaims(first));
+        assertSame(thirdClaims, jwtCore.parseClaims(third));
+        assertNotSame(secondClaims, jwtCore.parseClaims(second));
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String email) {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "User", email, "password", RoleEnum.USER, true);
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.enums.RoleEnum;
+import com.example.bankcards.service.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenFilterTest {
+    private static final String SECRET = "test_jwt_secret_key_for_testing_purposes_only";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private UserDetailsCache userDetailsCache;
+    @Mock
+    private TokenService tokenService;
+
+    private JWTCore jwtCore;
+    private TokenFilter tokenFilter;
+    private UserDetailsImpl user;
+
+    @BeforeEach
+    void setUp() {
+        jwtCore = new JWTCore(SECRET, 60_000, 100);
+        tokenFilter = new TokenFilter(jwtCore, userDetailsService, userDetailsCache, tokenService);
+        user = new UserDetailsImpl(7L, "User", "user@example.com", "password", RoleEnum.USER, true, 3);
+        when(tokenService.isTokenBlacklisted(anyString(), any())).thenReturn(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_whenTokenMatchesCachedAccount_shouldAuthenticateWithoutUserLookup() throws Exception {
+        when(userDetailsCache.get(7L)).thenReturn(Optional.of(user));
+
+        MockHttpServletResponse response = filter(tokenFor(user));
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilter_whenAccountVersionChanged_shouldRejectToken() throws Exception {
+        String token = tokenFor(user);
+        UserDetailsImpl blocked = new UserDetailsImpl(7L, "User", "user@example.com", "password", RoleEnum.USER, false, 4);
+        when(userDetailsCache.get(7L)).thenReturn(Optional.of(blocked));
+
+        MockHttpServletResponse response = filter(token);
+
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_whenUserWasDeleted_shouldRejectToken() throws Exception {
+        when(userDetailsCache.get(7L)).thenReturn(Optional.empty());
+
+        assertEquals(401, filter(tokenFor(user)).getStatus());
+    }
+
+    @Test
+    void doFilter_whenTokenPredatesLogoutEverywhere_shouldRejectToken() throws Exception {
+        String token = tokenFor(user);
+        UserDetailsImpl loggedOut = new UserDetailsImpl(7L, "User", "user@example.com", "password", RoleEnum.USER, true, 4);
+        when(userDetailsCache.get(7L)).thenReturn(Optional.of(loggedOut));
+
+        assertEquals(401, filter(token).getStatus());
+    }
+
+    private String tokenFor(UserDetailsImpl details) {
+        return jwtCore.generateToken(new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+    }
+
+    private MockHttpServletResponse filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cards");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        tokenFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private UserDetailsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserDetailsCache(userRepository, redisTemplate, listenerContainer, 300_000, 100);
+    }
+
+    @Test
+    void get_whenCached_shouldNotQueryTheDatabaseAgain() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(true, 3)));
+
+        cache.get(7L);
+        cache.get(7L);
+
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void get_whenEvictedWhileLoading_shouldNotCacheTheStaleRow() {
+        when(userRepository.findById(7L))
+            .thenAnswer(invocation -> {
+                cache.onMessage(new DefaultMessage("user-details-invalidated".getBytes(StandardCharsets.UTF_8),
+                    "7".getBytes(StandardCharsets.UTF_8)), null);
+                return Optional.of(user(true, 3));
+            })
+            .thenReturn(Optional.of(user(false, 4)));
+
+        assertTrue(cache.get(7L).orElseThrow().isEnabled());
+
+        UserDetailsImpl reloaded = cache.get(7L).orElseThrow();
+        assertFalse(reloaded.isEnabled());
+        assertEquals(4, reloaded.getAccountVersion());
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    private User user(boolean active, int accountVersion) {
+        User user = new User();
+        user.setId(7L);
+        user.setName("User");
+        user.setEmail("user@example.com");
+        user.setPassword("password");
+        user.setIsActive(active);
+        user.setAccountVersion(accountVersion);
+        return user;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private LocalRateLimiter rateLimiter;
+    private RateLimitProperties.Group group;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new LocalRateLimiter(clock::get);
+        group = new RateLimitProperties.Group();
+        group.setName("auth");
+        group.setPatterns(List.of("/api/v1/auth/**"));
+        group.setCapacity(2);
+        group.setRefillPerSecond(1);
+    }
+
+    @Test
+    void tryAcquire_whenBucketIsEmpty_shouldReturnTimeUntilNextToken() {
+        assertEquals(0, rateLimiter.tryAcquire("ip:1", group));
+        assertEquals(0, rateLimiter.tryAcquire("ip:1", group));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        long waitNanos = rateLimiter.tryAcquire("ip:1", group);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(750), waitNanos, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    void tryAcquire_whenTokensRefilled_shouldAllowAgain() {
+        rateLimiter.tryAcquire("ip:1", group);
+        rateLimiter.tryAcquire("ip:1", group);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, rateLimiter.tryAcquire("ip:1", group));
+        assertTrue(rateLimiter.tryAcquire("ip:1", group) > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepSeparateBucketsPerKey() {
+        rateLimiter.tryAcquire("ip:1", group);
+        rateLimiter.tryAcquire("ip:1", group);
+
+        assertEquals(0, rateLimiter.tryAcquire("ip:2", group));
+    }
+
+    @Test
+    void evictIdleBuckets_shouldDropOnlyRefilledBuckets() {
+        rateLimiter.tryAcquire("ip:1", group);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.tryAcquire("ip:2", group);
+
+        rateLimiter.evictIdleBuckets();
+
+        assertEquals(1, rateLimiter.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.bankcards.security.ratelimit;
+
+import com.example.bankcards.security.JWTCore;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private RateLimiter rateLimiter;
+    @Mock
+    private JWTCore jwtCore;
+
+    private RateLimitProperties properties;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setName("transactions");
+        group.setPatterns(List.of("/api/v1/transactions/**"));
+        group.setCapacity(10);
+        group.setRefillPerSecond(1);
+        properties = new RateLimitProperties();
+        properties.setGroups(List.of(group));
+        filter = new RateLimitFilter(rateLimiter, jwtCore, properties);
+    }
+
+    @Test
+    void doFilter_whenTokenIsValid_shouldLimitByUser() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        when(jwtCore.getEmailFromJwt("token")).thenReturn("user@example.com");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(rateLimiter).tryAcquire(eq("user:user@example.com"), any());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_whenTokenIsInvalid_shouldLimitByIp() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transactions");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        request.setRemoteAddr("10.0.0.1");
+        when(jwtCore.getEmailFromJwt("token")).thenThrow(new MalformedJwtException("bad"));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimiter).tryAcquire(eq("ip:10.0.0.1"), any());
+    }
+
+    @Test
+    void doFilter_whenLimitExceeded_shouldReturn429WithRetryAfter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transactions/cursor");
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_whenPathMatchesNoGroup_shouldPassThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/swagger-ui/index.html");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(rateLimiter);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_whenDisabled_shouldPassThrough() throws Exception {
+        properties.setEnabled(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/transactions"), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(rateLimiter);
+        assertNotNull(chain.getRequest());
+    }
+}
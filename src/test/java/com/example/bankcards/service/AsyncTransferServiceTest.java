@@ -0,0 +1,170 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.dto.transaction.TransferStatusDTO;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.enums.TransferStatus;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.TransferNotFoundException;
+import com.example.bankcards.exception.TransferQueueFullException;
+import com.example.bankcards.mapper.TransactionMapper;
+import com.example.bankcards.service.transfer.PessimisticTransferStrategy;
+import com.example.bankcards.service.transfer.QueuedTransfer;
+import com.example.bankcards.service.transfer.TransferOutcome;
+import com.example.bankcards.service.transfer.TransferStrategy;
+import com.example.bankcards.service.transfer.TransferStrategyType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransferServiceTest {
+
+    @Mock
+    private PessimisticTransferStrategy pessimisticTransferStrategy;
+    @Mock
+    private TransferStrategy optimisticTransferStrategy;
+    @Mock
+    private TransactionMapper transactionMapper;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.TEN, "test");
+
+    private AsyncTransferService asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(pessimisticTransferStrategy.getType()).thenReturn(TransferStrategyType.PESSIMISTIC);
+        lenient().when(optimisticTransferStrategy.getType()).thenReturn(TransferStrategyType.OPTIMISTIC);
+        asyncTransferService = service(TransferStrategyType.PESSIMISTIC);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    private AsyncTransferService service(TransferStrategyType strategyType) {
+        return new AsyncTransferService(List.of(pessimisticTransferStrategy, optimisticTransferStrategy), strategyType,
+            transactionMapper, redisTemplate, objectMapper, 1, 1, 10, 60_000, 2);
+    }
+
+    @Test
+    void submit_shouldStorePendingStatusAndReturnTransferId() throws Exception {
+        TransferStatusDTO status = asyncTransferService.submit(1L, request);
+
+        assertEquals(TransferStatus.PENDING, status.getStatus());
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq("transfer:status:1:" + status.getTransferId()), stored.capture(), any(Duration.class));
+        assertEquals(status, objectMapper.readValue(stored.getValue(), TransferStatusDTO.class));
+    }
+
+    @Test
+    void submit_whenQueueIsFull_shouldRejectWithRetryAfter() {
+        asyncTransferService.submit(1L, request);
+
+        TransferQueueFullException ex = assertThrows(TransferQueueFullException.class,
+            () -> asyncTransferService.submit(1L, request));
+
+        assertEquals(2, ex.getRetryAfterSeconds());
+        verify(redisTemplate).delete(startsWith("transfer:status:1:"));
+    }
+
+    @Test
+    void processBatch_shouldPublishOutcomeOfEveryTransfer() throws Exception {
+        QueuedTransfer ok = new QueuedTransfer("ok", 1L, request);
+        QueuedTransfer rejected = new QueuedTransfer("rejected", 1L, request);
+        Transaction transaction = new Transaction();
+        when(pessimisticTransferStrategy.transferBatch(List.of(ok, rejected))).thenReturn(List.of(
+            TransferOutcome.completed(ok, transaction), TransferOutcome.failed(rejected, "Insufficient funds")));
+        when(transactionMapper.toDTO(transaction)).thenReturn(new TransactionDTO());
+
+        asyncTransferService.processBatch(List.of(ok, rejected));
+
+        assertEquals(TransferStatus.COMPLETED, storedStatus("transfer:status:1:ok").getStatus());
+        TransferStatusDTO failed = storedStatus("transfer:status:1:rejected");
+        assertEquals(TransferStatus.FAILED, failed.getStatus());
+        assertEquals("Insufficient funds", failed.getError());
+    }
+
+    @Test
+    void processBatch_whenBatchFails_shouldRetryTransfersOneByOne() throws Exception {
+        QueuedTransfer first = new QueuedTransfer("first", 1L, request);
+        QueuedTransfer second = new QueuedTransfer("second", 1L, request);
+        when(pessimisticTransferStrategy.transferBatch(List.of(first, second))).thenThrow(new CannotAcquireLockException("deadlock"));
+        when(pessimisticTransferStrategy.transferBatch(List.of(first))).thenReturn(List.of(TransferOutcome.completed(first, new Transaction())));
+        when(pessimisticTransferStrategy.transferBatch(List.of(second))).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        asyncTransferService.processBatch(List.of(first, second));
+
+        assertEquals(TransferStatus.COMPLETED, storedStatus("transfer:status:1:first").getStatus());
+        assertEquals(TransferStatus.FAILED, storedStatus("transfer:status:1:second").getStatus());
+    }
+
+    @Test
+    void processBatch_withNonBatchingStrategy_shouldApplyConfiguredStrategyPerTransfer() throws Exception {
+        asyncTransferService = service(TransferStrategyType.OPTIMISTIC);
+        QueuedTransfer ok = new QueuedTransfer("ok", 1L, request);
+        QueuedTransfer rejected = new QueuedTransfer("rejected", 2L, request);
+        when(optimisticTransferStrategy.transfer(1L, request)).thenReturn(new Transaction());
+        when(optimisticTransferStrategy.transfer(2L, request)).thenThrow(new InsufficientFundsException());
+
+        asyncTransferService.processBatch(List.of(ok, rejected));
+
+        assertEquals(TransferStatus.COMPLETED, storedStatus("transfer:status:1:ok").getStatus());
+        TransferStatusDTO failed = storedStatus("transfer:status:2:rejected");
+        assertEquals(TransferStatus.FAILED, failed.getStatus());
+        assertEquals(new InsufficientFundsException().getMessage(), failed.getError());
+        verify(pessimisticTransferStrategy, never()).transferBatch(any());
+    }
+
+    @Test
+    void processBatch_whenOutcomeCannotBePublished_shouldMarkItFailedAndPublishTheRest() throws Exception {
+        QueuedTransfer broken = new QueuedTransfer("broken", 1L, request);
+        QueuedTransfer ok = new QueuedTransfer("ok", 1L, request);
+        Transaction brokenTransaction = new Transaction();
+        Transaction okTransaction = new Transaction();
+        when(pessimisticTransferStrategy.transferBatch(List.of(broken, ok))).thenReturn(List.of(
+            TransferOutcome.completed(broken, brokenTransaction), TransferOutcome.completed(ok, okTransaction)));
+        when(transactionMapper.toDTO(brokenTransaction)).thenThrow(new IllegalStateException("mapping"));
+        when(transactionMapper.toDTO(okTransaction)).thenReturn(new TransactionDTO());
+
+        asyncTransferService.processBatch(List.of(broken, ok));
+
+        assertEquals(TransferStatus.FAILED, storedStatus("transfer:status:1:broken").getStatus());
+        assertEquals(TransferStatus.COMPLETED, storedStatus("transfer:status:1:ok").getStatus());
+    }
+
+    @Test
+    void getStatus_whenUnknownOrForeign_shouldThrowNotFound() {
+        when(valueOperations.get("transfer:status:2:abc")).thenReturn(null);
+
+        assertThrows(TransferNotFoundException.class, () -> asyncTransferService.getStatus(2L, "abc"));
+    }
+
+    private TransferStatusDTO storedStatus(String key) throws Exception {
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(key), stored.capture(), any(Duration.class));
+        return objectMapper.readValue(stored.getValue(), TransferStatusDTO.class);
+    }
+}
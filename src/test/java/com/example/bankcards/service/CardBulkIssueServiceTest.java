@@ -0,0 +1,167 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.card.BulkIssueCardsResponseDTO;
+import com.example.bankcards.dto.card.CardDTO;
+import com.example.bankcards.dto.card.CreateCardRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidBulkRequestException;
+import com.example.bankcards.mapper.CardMapper;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.crypto.CardKeyring;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardBulkIssueServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CardMapper cardMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private CardExpiryIndex cardExpiryIndex;
+
+    private CardBulkIssueService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(1, Map.of(1, new SecretKeySpec(new byte[32], "AES"))));
+        CardNumberBlindIndex blindIndex = new CardNumberBlindIndex(new SecretKeySpec(new byte[32], "HmacSHA256"));
+        service = new CardBulkIssueService(cardRepository, userRepository, cardMapper, cipher, blindIndex, cardExpiryIndex,
+            Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 3, 2);
+
+        user = new User();
+        user.setId(1L);
+        lenient().when(cardMapper.toDTO(any(Card.class))).thenAnswer(i -> {
+            CardDTO dto = new CardDTO();
+            dto.setCardHolder(i.<Card>getArgument(0).getCardHolder());
+            return dto;
+        });
+        lenient().when(cardRepository.findExistingCardNumberHashes(anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void issue_shouldLoadUsersOnceAndSaveValidRowsTogether() {
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(user));
+        List<CreateCardRequestDTO> requests = List.of(
+            new CreateCardRequestDTO("First", LocalDate.now().plusYears(3), 1L),
+            new CreateCardRequestDTO("Unknown", LocalDate.now().plusYears(3), 2L),
+            new CreateCardRequestDTO("", LocalDate.now().plusYears(3), 1L));
+
+        BulkIssueCardsResponseDTO response = service.issue(requests);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Card>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cardRepository).saveAll(captor.capture());
+        Card saved = captor.getValue().get(0);
+        assertEquals(1, captor.getValue().size());
+        assertEquals(user, saved.getUser());
+        assertNotNull(saved.getCardNumberHash());
+        assertEquals(4, saved.getCardNumberLast4().length());
+
+        assertEquals(1, response.getIssued());
+        assertEquals(2, response.getFailed());
+        assertEquals("First", response.getResults().get(0).getCard().getCardHolder());
+        assertNull(response.getResults().get(0).getError());
+        assertEquals("User not found", response.getResults().get(1).getError());
+        assertEquals("Card holder name must not be empty", response.getResults().get(2).getError());
+        verify(userRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void issue_whenGeneratedNumberAlreadyExists_shouldRedrawIt() {
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        AtomicReference<byte[]> taken = new AtomicReference<>();
+        when(cardRepository.findExistingCardNumberHashes(anyCollection())).thenAnswer(i -> {
+            Collection<byte[]> hashes = i.getArgument(0);
+            if (taken.get() == null) {
+                taken.set(hashes.iterator().next());
+                return List.of(taken.get());
+            }
+            return List.of();
+        });
+
+        service.issue(List.of(new CreateCardRequestDTO("First", LocalDate.now().plusYears(3), 1L)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Card>> captor = ArgumentCaptor.forClass(List.class);
+        verify(cardRepository).saveAll(captor.capture());
+        assertFalse(Arrays.equals(taken.get(), captor.getValue().get(0).getCardNumberHash()));
+        verify(cardRepository, times(2)).findExistingCardNumberHashes(anyCollection());
+    }
+
+    @Test
+    void issueFromCsv_shouldParseRowsAndReportMalformedOnes() {
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        String csv = "cardHolder,expiryDate,userId\n" +
+            "\"Doe, John\"," + LocalDate.now().plusYears(3) + ",1\n" +
+            "\n" +
+            "Jane,not-a-date,1\n";
+
+        BulkIssueCardsResponseDTO response = service.issueFromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.getIssued());
+        assertEquals("Doe, John", response.getResults().get(0).getCard().getCardHolder());
+        assertEquals("Expiry date must be in yyyy-MM-dd format", response.getResults().get(1).getError());
+    }
+
+    @Test
+    void issueFromCsv_whenHeaderIsMissing_shouldThrow() {
+        byte[] csv = "John,2030-01-01,1\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(InvalidBulkRequestException.class, () -> service.issueFromCsv(new ByteArrayInputStream(csv)));
+    }
+
+    @Test
+    void issue_whenTooManyRows_shouldThrow() {
+        List<CreateCardRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(new CreateCardRequestDTO("Holder", LocalDate.now().plusYears(3), 1L));
+        }
+
+        assertThrows(InvalidBulkRequestException.class, () -> service.issue(requests));
+        verifyNoInteractions(userRepository, cardRepository);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpirationSchedulerTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpirationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new CardExpirationScheduler(cardRepository, transactionManager, meterRegistry, 100);
+    }
+
+    @Test
+    void checkCardExpiration_shouldUpdateEachIdRangeInItsOwnTransaction() {
+        when(cardRepository.findMinId()).thenReturn(1L);
+        when(cardRepository.findMaxId()).thenReturn(250L);
+        when(cardRepository.expireInIdRange(anyLong(), anyLong(), any(LocalDate.class), eq(CardStatus.ACTIVE), eq(CardStatus.EXPIRED)))
+            .thenReturn(3, 0, 2);
+
+        scheduler.checkCardExpiration();
+
+        LocalDate today = LocalDate.now();
+        verify(cardRepository).expireInIdRange(1L, 101L, today, CardStatus.ACTIVE, CardStatus.EXPIRED);
+        verify(cardRepository).expireInIdRange(101L, 201L, today, CardStatus.ACTIVE, CardStatus.EXPIRED);
+        verify(cardRepository).expireInIdRange(201L, 301L, today, CardStatus.ACTIVE, CardStatus.EXPIRED);
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(5.0, meterRegistry.summary("card.expiration.expired").totalAmount());
+        assertEquals(1, meterRegistry.timer("card.expiration.run").count());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpiryPollerTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private CardExpiryIndex cardExpiryIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardExpiryPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        poller = new CardExpiryPoller(cardRepository, cardExpiryIndex, transactionManager, meterRegistry, 2);
+    }
+
+    @Test
+    void expireDueCards_shouldDrainFullBatchesUntilIndexRunsDry() {
+        LocalDate today = LocalDate.now();
+        when(cardExpiryIndex.popDue(today, 2)).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(cardRepository.expireByIds(List.of(1L, 2L), today, CardStatus.ACTIVE, CardStatus.EXPIRED)).thenReturn(2);
+        when(cardRepository.expireByIds(List.of(3L), today, CardStatus.ACTIVE, CardStatus.EXPIRED)).thenReturn(0);
+
+        poller.expireDueCards();
+
+        verify(cardExpiryIndex, times(2)).popDue(today, 2);
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(2.0, meterRegistry.counter("card.expiration.polled").count());
+    }
+
+    @Test
+    void expireDueCards_whenUpdateFails_shouldRequeueBatch() {
+        LocalDate today = LocalDate.now();
+        when(cardExpiryIndex.popDue(today, 2)).thenReturn(List.of(1L, 2L));
+        when(cardRepository.expireByIds(List.of(1L, 2L), today, CardStatus.ACTIVE, CardStatus.EXPIRED))
+            .thenThrow(new QueryTimeoutException("timeout"));
+
+        poller.expireDueCards();
+
+        verify(cardExpiryIndex).requeue(List.of(1L, 2L), today);
+        verify(cardExpiryIndex, times(1)).popDue(today, 2);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.service.crypto.CardCiphertext;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
+import com.example.bankcards.support.PostgresContainerSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the backfill against real Postgres with two legacy cards sharing a number, so the unique blind index
+ * would reject the second one, and checks that the rest of the chunk is still persisted.
+ */
+class CardNumberBackfillIntegrationTest extends PostgresContainerSupport {
+    private static final long USER_ID = 50_000;
+    private static final long FIRST_DUPLICATE_ID = 50_001;
+    private static final long SECOND_DUPLICATE_ID = 50_002;
+    private static final long OTHER_CARD_ID = 50_003;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CardNumberCipher cardNumberCipher;
+    @Autowired
+    private CardNumberBlindIndex blindIndex;
+    @Autowired
+    private CardNumberBackfill backfill;
+
+    @Test
+    void backfill_whenTwoLegacyCardsShareNumber_shouldPersistEveryOtherCardInTheChunk() {
+        jdbcTemplate.update("INSERT INTO main.users (id, name, email, password, role, is_active) " +
+            "VALUES (?, 'Backfill User', 'backfill-user@example.com', 'x', 'USER', true)", USER_ID);
+        insertLegacyCard(FIRST_DUPLICATE_ID, "4111111111111111");
+        insertLegacyCard(SECOND_DUPLICATE_ID, "4111111111111111");
+        insertLegacyCard(OTHER_CARD_ID, "4222222222222222");
+
+        backfill.backfill();
+
+        Map<String, Object> first = derivedColumns(FIRST_DUPLICATE_ID);
+        assertEquals("1111", first.get("card_number_last4"));
+        assertArrayEquals(blindIndex.hash("4111111111111111"), (byte[]) first.get("card_number_hash"));
+
+        assertNull(derivedColumns(SECOND_DUPLICATE_ID).get("card_number_hash"));
+
+        Map<String, Object> other = derivedColumns(OTHER_CARD_ID);
+        assertEquals("2222", other.get("card_number_last4"));
+        assertArrayEquals(blindIndex.hash("4222222222222222"), (byte[]) other.get("card_number_hash"));
+    }
+
+    private void insertLegacyCard(long id, String cardNumber) {
+        CardCiphertext ciphertext = cardNumberCipher.encrypt(cardNumber);
+        jdbcTemplate.update("INSERT INTO main.cards (id, card_number, card_number_key_version, card_holder, expiry_date, " +
+                "status, balance, created_at, user_id) VALUES (?, ?, ?, 'BACKFILL USER', CURRENT_DATE + 365, 'ACTIVE', 0, now(), ?)",
+            id, ciphertext.data(), ciphertext.keyVersion(), USER_ID);
+    }
+
+    private Map<String, Object> derivedColumns(long id) {
+        return jdbcTemplate.queryForMap("SELECT card_number_last4, card_number_hash FROM main.cards WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.crypto.CardKeyring;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberBackfillTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardNumberBlindIndex blindIndex;
+    private CardNumberBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        blindIndex = new CardNumberBlindIndex(new SecretKeySpec(new byte[32], "HmacSHA256"));
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(1, Map.of(1, new SecretKeySpec(new byte[32], "AES"))));
+        backfill = new CardNumberBackfill(cardRepository, cipher, blindIndex, transactionManager, 2);
+    }
+
+    @Test
+    void backfill_shouldWalkChunksByIdAndStoreLastFourAndBlindIndex() {
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(card(1L, "4111111111111111"), card(2L, "4222222222222222")));
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(2L), any(Pageable.class)))
+            .thenReturn(List.of(card(5L, "4333333333333333")));
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(cardRepository.setDerivedColumns(anyLong(), any(), any())).thenReturn(1);
+
+        backfill.backfill();
+
+        verify(cardRepository).setDerivedColumns(1L, "1111", blindIndex.hash("4111111111111111"));
+        verify(cardRepository).setDerivedColumns(2L, "2222", blindIndex.hash("4222222222222222"));
+        verify(cardRepository).setDerivedColumns(5L, "3333", blindIndex.hash("4333333333333333"));
+        verify(transactionManager, times(3)).commit(any());
+        assertTrue(backfill.isCompleted());
+
+        backfill.backfill();
+        verify(cardRepository, times(3)).findWithoutDerivedColumnsAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void backfill_whenCardCannotBeDecrypted_shouldSkipItAndRetryLater() {
+        CardRepository.EncryptedCardNumber broken = mock(CardRepository.EncryptedCardNumber.class);
+        when(broken.getId()).thenReturn(1L);
+        when(broken.getCardNumber()).thenReturn(new byte[8]);
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(broken, card(2L, "4222222222222222")));
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(cardRepository.setDerivedColumns(eq(2L), eq("2222"), any())).thenReturn(1);
+
+        backfill.backfill();
+
+        verify(cardRepository, never()).setDerivedColumns(eq(1L), any(), any());
+        assertFalse(backfill.isCompleted());
+    }
+
+    @Test
+    void backfill_whenNumberIsAlreadyIndexedForAnotherCard_shouldSkipThatCardWithoutUpdating() {
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(card(1L, "4111111111111111"), card(2L, "4222222222222222")));
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(cardRepository.existsByCardNumberHash(blindIndex.hash("4111111111111111"))).thenReturn(true);
+        when(cardRepository.setDerivedColumns(eq(2L), eq("2222"), any())).thenReturn(1);
+
+        backfill.backfill();
+
+        verify(cardRepository, never()).setDerivedColumns(eq(1L), any(), any());
+        verify(cardRepository).setDerivedColumns(eq(2L), eq("2222"), any());
+        assertFalse(backfill.isCompleted());
+    }
+
+    @Test
+    void backfill_whenNumberIsIndexedConcurrently_shouldStopThePassAndRetryLater() {
+        when(cardRepository.findWithoutDerivedColumnsAfter(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(card(1L, "4111111111111111")));
+        when(cardRepository.setDerivedColumns(eq(1L), eq("1111"), any()))
+            .thenThrow(new DataIntegrityViolationException("uq_cards_card_number_hash"));
+
+        backfill.backfill();
+
+        verify(transactionManager).rollback(any());
+        verify(cardRepository, never()).findWithoutDerivedColumnsAfter(eq(1L), any(Pageable.class));
+        assertFalse(backfill.isCompleted());
+    }
+
+    private CardRepository.EncryptedCardNumber card(Long id, String cardNumber) {
+        byte[] encrypted = CardNumberUtil.encryptCardNumber(cardNumber);
+        return new CardRepository.EncryptedCardNumber() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public byte[] getCardNumber() {
+                return encrypted;
+            }
+
+            @Override
+            public Integer getCardNumberKeyVersion() {
+                return null;
+            }
+        };
+    }
+}
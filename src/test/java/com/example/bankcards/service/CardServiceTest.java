@@ -7,10 +7,14 @@ import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.enums.CardStatus;
 import com.example.bankcards.entity.enums.RoleEnum;
 import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InvalidCardNumberException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.CardMapper;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.crypto.CardCiphertext;
+import com.example.bankcards.service.crypto.CardNumberBlindIndex;
+import com.example.bankcards.service.crypto.CardNumberCipher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +29,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +37,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +49,12 @@ class CardServiceTest {
     private UserRepository userRepository;
     @Mock
     private CardMapper cardMapper;
+    @Mock
+    private CardNumberCipher cardNumberCipher;
+    @Mock
+    private CardNumberBlindIndex cardNumberBlindIndex;
+    @Mock
+    private CardExpiryIndex cardExpiryIndex;
     @InjectMocks
     private CardService cardService;
 
@@ -94,12 +106,47 @@ class CardServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(cardRepository.save(any(Card.class))).thenAnswer(i -> i.getArgument(0));
         when(cardMapper.toDTO(any(Card.class))).thenReturn(new CardDTO());
+        when(cardNumberCipher.encrypt(anyString()))
+            .thenAnswer(i -> new CardCiphertext(i.<String>getArgument(0).getBytes(StandardCharsets.UTF_8), 2));
+        when(cardNumberBlindIndex.hash(anyString())).thenAnswer(i -> ("hash:" + i.getArgument(0)).getBytes(StandardCharsets.UTF_8));
+        when(cardRepository.existsByCardNumberHash(any())).thenReturn(true, false);
 
         cardService.createCard(request);
 
         ArgumentCaptor<Card> cardCaptor = ArgumentCaptor.forClass(Card.class);
         verify(cardRepository).save(cardCaptor.capture());
         assertEquals("Holder", cardCaptor.getValue().getCardHolder());
+        String cardNumber = new String(cardCaptor.getValue().getCardNumber(), StandardCharsets.UTF_8);
+        assertEquals(cardNumber.substring(12), cardCaptor.getValue().getCardNumberLast4());
+        assertEquals(2, cardCaptor.getValue().getCardNumberKeyVersion());
+        assertEquals("hash:" + cardNumber, new String(cardCaptor.getValue().getCardNumberHash(), StandardCharsets.UTF_8));
+        verify(cardRepository, times(2)).existsByCardNumberHash(any());
+        verify(cardExpiryIndex).add(cardCaptor.getValue());
+    }
+
+    @Test
+    void findByCardNumber_shouldProbeBlindIndexWithNormalizedNumber() {
+        byte[] hash = {1, 2, 3};
+        when(cardNumberBlindIndex.hash("4111111111111111")).thenReturn(hash);
+        when(cardRepository.findByCardNumberHash(hash)).thenReturn(Optional.of(testCard));
+        CardDTO dto = new CardDTO();
+        when(cardMapper.toDTO(testCard)).thenReturn(dto);
+
+        assertEquals(dto, cardService.findByCardNumber("4111 1111-1111 1111"));
+    }
+
+    @Test
+    void findByCardNumber_whenNoCardMatches_shouldThrowNotFound() {
+        when(cardNumberBlindIndex.hash("4111111111111111")).thenReturn(new byte[]{1});
+        when(cardRepository.findByCardNumberHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(CardNotFoundException.class, () -> cardService.findByCardNumber("4111111111111111"));
+    }
+
+    @Test
+    void findByCardNumber_whenNumberIsMalformed_shouldThrow() {
+        assertThrows(InvalidCardNumberException.class, () -> cardService.findByCardNumber("4111"));
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
@@ -164,6 +211,7 @@ class CardServiceTest {
         cardService.deleteCard(1L);
 
         verify(cardRepository).deleteById(1L);
+        verify(cardExpiryIndex).remove(1L);
     }
 
     @Test
@@ -0,0 +1,186 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.exception.IdempotencyKeyReusedException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.InvalidIdempotencyKeyException;
+import com.example.bankcards.exception.RequestInProgressException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    private static final String REDIS_KEY = "idempotency:1:key-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, new BigDecimal("100.00"), "test");
+    private final TransactionDTO response = new TransactionDTO(10L, 1L, 2L, new BigDecimal("100.00"), LocalDateTime.now(), "test");
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(redisTemplate, objectMapper, 60_000, 1_000, 50, 5);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void execute_whenKeyIsNew_shouldRunActionAndStoreResponse() throws Exception {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> response, key -> Optional.empty());
+
+        assertEquals(response, result);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(REDIS_KEY), stored.capture(), eq(Duration.ofMillis(60_000)));
+        IdempotencyService.IdempotencyRecord record = objectMapper.readValue(stored.getValue(), IdempotencyService.IdempotencyRecord.class);
+        assertEquals(response, objectMapper.readValue(record.response(), TransactionDTO.class));
+    }
+
+    @Test
+    void execute_whenResponseIsStored_shouldReplayWithoutRunningAction() throws Exception {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(completedRecord(request));
+        AtomicInteger calls = new AtomicInteger();
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> {
+            calls.incrementAndGet();
+            return response;
+        }, key -> Optional.empty());
+
+        assertEquals(response, result);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_whenKeyWasUsedWithDifferentRequest_shouldThrowIdempotencyKeyReusedException() throws Exception {
+        CreateTransactionRequestDTO other = new CreateTransactionRequestDTO(1L, 2L, new BigDecimal("5.00"), "other");
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(completedRecord(other));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> response, key -> Optional.empty()));
+    }
+
+    @Test
+    void execute_whenDuplicateIsInProgress_shouldWaitForStoredResponse() throws Exception {
+        String pending = objectMapper.writeValueAsString(new IdempotencyService.IdempotencyRecord(fingerprintOf(request), null));
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(pending, pending, completedRecord(request));
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> response, key -> Optional.empty());
+
+        assertEquals(response, result);
+        verify(valueOperations, times(3)).get(REDIS_KEY);
+    }
+
+    @Test
+    void execute_whenDuplicateDoesNotFinishInTime_shouldThrowRequestInProgressException() throws Exception {
+        String pending = objectMapper.writeValueAsString(new IdempotencyService.IdempotencyRecord(fingerprintOf(request), null));
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(pending);
+
+        assertThrows(RequestInProgressException.class,
+            () -> idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> response, key -> Optional.empty()));
+    }
+
+    @Test
+    void execute_whenActionFails_shouldReleaseKey() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(InsufficientFundsException.class,
+            () -> idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> {
+                throw new InsufficientFundsException();
+            }, key -> Optional.empty()));
+
+        verify(redisTemplate).delete(REDIS_KEY);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void execute_whenTransferWasAlreadyCommitted_shouldReturnItWithoutRunningAction() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> {
+            calls.incrementAndGet();
+            return response;
+        }, key -> "1:key-1".equals(key) ? Optional.of(response) : Optional.empty());
+
+        assertEquals(response, result);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_whenDuplicateCommitsFirst_shouldReturnCommittedResult() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        AtomicInteger lookups = new AtomicInteger();
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class, key -> {
+            throw new DataIntegrityViolationException("uq_transactions_idempotency_key");
+        }, key -> lookups.incrementAndGet() == 1 ? Optional.empty() : Optional.of(response));
+
+        assertEquals(response, result);
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void execute_whenCachingResponseFails_shouldStillReturnIt() {
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        doThrow(new RedisConnectionFailureException("down"))
+            .when(valueOperations).set(eq(REDIS_KEY), anyString(), any(Duration.class));
+
+        TransactionDTO result = idempotencyService.execute(1L, "key-1", request, TransactionDTO.class,
+            key -> response, key -> Optional.empty());
+
+        assertEquals(response, result);
+    }
+
+    @Test
+    void execute_whenKeyIsBlank_shouldThrowInvalidIdempotencyKeyException() {
+        assertThrows(InvalidIdempotencyKeyException.class,
+            () -> idempotencyService.execute(1L, " ", request, TransactionDTO.class, key -> response, key -> Optional.empty()));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private String completedRecord(CreateTransactionRequestDTO forRequest) throws Exception {
+        return objectMapper.writeValueAsString(new IdempotencyService.IdempotencyRecord(
+            fingerprintOf(forRequest), objectMapper.writeValueAsString(response)));
+    }
+
+    private String fingerprintOf(CreateTransactionRequestDTO forRequest) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(forRequest)));
+    }
+}
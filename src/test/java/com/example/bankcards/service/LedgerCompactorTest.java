@@ -0,0 +1,29 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerCompactorTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @InjectMocks
+    private LedgerCompactor ledgerCompactor;
+
+    @Test
+    void compact_shouldApplyEveryPendingEntryInOneStatement() {
+        when(cardRepository.applyLedgerEntries()).thenReturn(2);
+
+        ledgerCompactor.compact();
+
+        verify(cardRepository).applyLedgerEntries();
+        verifyNoMoreInteractions(cardRepository);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.RefreshToken;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.InvalidRefreshTokenException;
+import com.example.bankcards.repository.RefreshTokenRepository;
+import com.example.bankcards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, 60_000);
+        user = new User();
+        user.setId(1L);
+        user.setIsActive(true);
+    }
+
+    @Test
+    void issue_shouldStoreOnlyHashOfNewToken() {
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        String token = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(32, saved.getValue().getTokenHash().length);
+        assertNotEquals(token, new String(saved.getValue().getTokenHash()));
+        assertNotNull(saved.getValue().getFamilyId());
+        assertSame(user, saved.getValue().getUser());
+    }
+
+    @Test
+    void rotate_shouldRevokeCurrentAndIssueSuccessorInSameFamily() {
+        RefreshToken current = storedToken(LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(current));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("token");
+
+        assertNotNull(current.getRevokedAt());
+        assertSame(user, rotation.user());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family", saved.getValue().getFamilyId());
+        assertNull(saved.getValue().getRevokedAt());
+    }
+
+    @Test
+    void rotate_shouldRevokeWholeFamilyWhenRotatedTokenIsReused() {
+        RefreshToken current = storedToken(LocalDateTime.now().plusDays(1), LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revokeFamily(eq("family"), any())).thenReturn(1);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_shouldRejectExpiredToken() {
+        RefreshToken current = storedToken(LocalDateTime.now().minusSeconds(1), null);
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("token"));
+
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_shouldRejectTokenOfBlockedUser() {
+        user.setIsActive(false);
+        RefreshToken current = storedToken(LocalDateTime.now().plusDays(1), null);
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("token"));
+    }
+
+    @Test
+    void rotate_shouldRejectUnknownToken() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("token"));
+    }
+
+    private RefreshToken storedToken(LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setFamilyId("family");
+        token.setExpiresAt(expiresAt);
+        token.setRevokedAt(revokedAt);
+        return token;
+    }
+}
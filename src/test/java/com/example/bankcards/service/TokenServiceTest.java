@@ -0,0 +1,175 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.security.JWTCore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    @Mock
+    private JWTCore jwtCore;
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(redisTemplate, listenerContainer, jwtCore, 1_000, 0.01, 60_000, 2, 60_000);
+    }
+
+    @Test
+    void blacklistToken_shouldStoreJtiForRemainingLifetimeAndPublishIt() {
+        when(jwtCore.parseClaims("token")).thenReturn(claims("jti-1", 60_000));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        tokenService.blacklistToken("token");
+
+        verify(valueOperations).set(eq("revoked-jti:jti-1"), eq("1"),
+            argThat((Duration ttl) -> ttl.compareTo(Duration.ofSeconds(50)) > 0 && ttl.compareTo(Duration.ofMinutes(1)) <= 0));
+        verify(redisTemplate).convertAndSend("revoked-jti", "jti-1");
+    }
+
+    @Test
+    void blacklistToken_whenTokenIsInvalid_shouldDoNothing() {
+        when(jwtCore.parseClaims("token")).thenThrow(new MalformedJwtException("bad"));
+
+        tokenService.blacklistToken("token");
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void isTokenBlacklisted_beforeFilterIsBuilt_shouldAskRedis() {
+        when(redisTemplate.hasKey("revoked-jti:jti-1")).thenReturn(true);
+
+        assertTrue(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+    }
+
+    @Test
+    void isTokenBlacklisted_whenFilterHasNoEntry_shouldSkipRedis() {
+        rebuildWith("revoked-jti:other");
+
+        assertFalse(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void isTokenBlacklisted_whenFilterMatches_shouldConfirmInRedis() {
+        rebuildWith("revoked-jti:jti-1");
+        when(redisTemplate.hasKey("revoked-jti:jti-1")).thenReturn(true);
+
+        assertTrue(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+    }
+
+    @Test
+    void isTokenBlacklisted_whenRevokedOnAnotherNode_shouldAnswerLocally() {
+        rebuildWith();
+        tokenService.onMessage(new DefaultMessage("revoked-jti".getBytes(StandardCharsets.UTF_8),
+            "jti-1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void isTokenBlacklisted_whenRedisFails_shouldOpenBreakerAndStopCallingRedis() {
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertFalse(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+        assertFalse(tokenService.isTokenBlacklisted("token", claims("jti-2", 60_000)));
+        assertFalse(tokenService.isTokenBlacklisted("token", claims("jti-3", 60_000)));
+
+        verify(redisTemplate, times(2)).hasKey(anyString());
+    }
+
+    @Test
+    void blacklistToken_whenRedisIsDown_shouldRevokeLocallyAndReconcileLater() {
+        when(jwtCore.parseClaims("token")).thenReturn(claims("jti-1", 60_000));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doThrow(new RedisConnectionFailureException("down"))
+            .doNothing()
+            .when(valueOperations).set(eq("revoked-jti:jti-1"), eq("1"), any(Duration.class));
+
+        tokenService.blacklistToken("token");
+
+        assertTrue(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        tokenService.reconcileRevocations();
+        tokenService.reconcileRevocations();
+
+        verify(valueOperations, times(2)).set(eq("revoked-jti:jti-1"), eq("1"), any(Duration.class));
+        verify(redisTemplate).convertAndSend("revoked-jti", "jti-1");
+    }
+
+    @Test
+    void isTokenBlacklisted_whenTokenHasNoJti_shouldCheckLegacyKey() {
+        when(redisTemplate.hasKey("legacy-token")).thenReturn(true);
+
+        assertTrue(tokenService.isTokenBlacklisted("legacy-token", claims(null, 60_000)));
+    }
+
+    @Test
+    void onChannelSubscribed_shouldRebuildFilterWithRevocationsMissedWhileDisconnected() {
+        rebuildWith();
+        stubScan("revoked-jti:jti-1");
+        when(redisTemplate.hasKey("revoked-jti:jti-1")).thenReturn(true);
+
+        tokenService.onChannelSubscribed("revoked-jti".getBytes(StandardCharsets.UTF_8), 1);
+
+        assertTrue(tokenService.isTokenBlacklisted("token", claims("jti-1", 60_000)));
+    }
+
+    private void rebuildWith(String... keys) {
+        stubScan(keys);
+        tokenService.rebuildRevokedFilter();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan(String... keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        var iterator = List.of(keys).iterator();
+        when(cursor.hasNext()).thenAnswer(i -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(i -> iterator.next());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+
+    private static Claims claims(String jti, long remainingMs) {
+        return Jwts.claims()
+            .id(jti)
+            .subject("user@example.com")
+            .expiration(new Date(System.currentTimeMillis() + remainingMs))
+            .build();
+    }
+}
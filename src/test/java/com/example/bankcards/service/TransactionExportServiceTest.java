@@ -0,0 +1,88 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.UserNotFoundException;
+import com.example.bankcards.repository.TransactionExportRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionExportRepository transactionExportRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 12, 30);
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportService(transactionExportRepository, userRepository, objectMapper);
+        User user = new User();
+        user.setId(1L);
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionDTO> consumer = invocation.getArgument(1);
+            consumer.accept(new TransactionDTO(2L, 10L, 11L, new BigDecimal("5.50"), createdAt, "rent, \"march\""));
+            consumer.accept(new TransactionDTO(1L, 11L, 10L, new BigDecimal("1.00"), createdAt, null));
+            return null;
+        }).when(transactionExportRepository).streamByUserId(eq(1L), any());
+    }
+
+    @Test
+    void export_whenNdjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        String[] lines = write(TransactionExportService.Format.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        TransactionDTO first = objectMapper.readValue(lines[0], TransactionDTO.class);
+        assertEquals(2L, first.getId());
+        assertEquals("rent, \"march\"", first.getDescription());
+    }
+
+    @Test
+    void export_whenCsv_shouldWriteHeaderAndEscapedRows() throws Exception {
+        String csv = write(TransactionExportService.Format.CSV);
+
+        assertEquals("id,fromCardId,toCardId,amount,createdAt,description\n" +
+            "2,10,11,5.50,2025-03-01T12:30,\"rent, \"\"march\"\"\"\n" +
+            "1,11,10,1.00,2025-03-01T12:30,\n", csv);
+    }
+
+    @Test
+    void export_whenUserNotFound_shouldThrowBeforeStreaming() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class,
+            () -> transactionExportService.export(2L, TransactionExportService.Format.NDJSON));
+        verifyNoInteractions(transactionExportRepository);
+    }
+
+    private String write(TransactionExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(1L, format).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -3,33 +3,36 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
 import com.example.bankcards.dto.transaction.TransactionDTO;
+import com.example.bankcards.dto.transaction.TransactionSliceDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.entity.User;
-import com.example.bankcards.entity.enums.CardStatus;
-import com.example.bankcards.exception.CardBlockedException;
+import com.example.bankcards.exception.IdempotencyKeyReusedException;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.InvalidCursorException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.TransactionMapper;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.transfer.TransferStrategy;
+import com.example.bankcards.service.transfer.TransferStrategyType;
+import com.example.bankcards.util.TransactionCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,73 +41,61 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
-    private CardService cardService;
-    @Mock
     private UserRepository userRepository;
-    @InjectMocks
-    private TransactionService transactionService;
     @Mock
     private TransactionMapper transactionMapper;
+    @Mock
+    private TransferStrategy transferStrategy;
 
+    private TransactionService transactionService;
     private User testUser;
-    private Card fromCard;
-    private Card toCard;
 
     @BeforeEach
     void setUp() {
+        lenient().when(transferStrategy.getType()).thenReturn(TransferStrategyType.PESSIMISTIC);
+        transactionService = new TransactionService(
+            transactionRepository, transactionMapper, userRepository, List.of(transferStrategy), TransferStrategyType.PESSIMISTIC);
+
         testUser = new User();
         testUser.setId(1L);
-
-        fromCard = new Card();
-        fromCard.setId(1L);
-        fromCard.setUser(testUser);
-        fromCard.setStatus(CardStatus.ACTIVE);
-        fromCard.setBalance(BigDecimal.valueOf(500));
-        fromCard.setExpiryDate(LocalDate.now().plusYears(1));
-
-        toCard = new Card();
-        toCard.setId(2L);
-        toCard.setUser(testUser);
-        toCard.setStatus(CardStatus.ACTIVE);
-        toCard.setBalance(BigDecimal.valueOf(100));
-        toCard.setExpiryDate(LocalDate.now().plusYears(1));
     }
 
     @Test
-    void createTransaction_whenValid_shouldSucceed() {
+    void createTransaction_whenValid_shouldDelegateToConfiguredStrategy() {
         CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
-        when(transactionMapper.toDTO(any(Transaction.class))).thenReturn(new TransactionDTO());
+        Transaction transaction = new Transaction();
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardService.findByIdAndUserId(1L, 1L)).thenReturn(fromCard);
-        when(cardService.findByIdAndUserId(2L, 1L)).thenReturn(toCard);
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        when(transferStrategy.transfer(1L, request, null)).thenReturn(transaction);
+        when(transactionMapper.toDTO(transaction)).thenReturn(new TransactionDTO());
 
         transactionService.createTransaction(request, 1L);
 
-        assertEquals(BigDecimal.valueOf(400), fromCard.getBalance());
-        assertEquals(BigDecimal.valueOf(200), toCard.getBalance());
-        verify(transactionRepository).save(any(Transaction.class));
+        verify(transferStrategy).transfer(1L, request, null);
+        verify(transactionMapper).toDTO(transaction);
     }
 
     @Test
-    void createTransaction_whenInsufficientFunds_shouldThrowException() {
+    void createTransaction_whenStrategyRejectsTransfer_shouldPropagateException() {
         CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(1000), "test");
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardService.findByIdAndUserId(1L, 1L)).thenReturn(fromCard);
-        when(cardService.findByIdAndUserId(2L, 1L)).thenReturn(toCard);
+        when(transferStrategy.transfer(1L, request, null)).thenThrow(new InsufficientFundsException());
 
         assertThrows(InsufficientFundsException.class, () -> transactionService.createTransaction(request, 1L));
     }
 
     @Test
-    void createTransaction_whenCardIsBlocked_shouldThrowException() {
-        fromCard.setStatus(CardStatus.BLOCKED);
+    void createTransaction_whenUserNotFound_shouldThrowException() {
         CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(cardService.findByIdAndUserId(1L, 1L)).thenReturn(fromCard);
-        when(cardService.findByIdAndUserId(2L, 1L)).thenReturn(toCard);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(CardBlockedException.class, () -> transactionService.createTransaction(request, 1L));
+        assertThrows(UserNotFoundException.class, () -> transactionService.createTransaction(request, 1L));
+        verify(transferStrategy, never()).transfer(any(), any(), any());
+    }
+
+    @Test
+    void constructor_whenConfiguredStrategyIsMissing_shouldFail() {
+        assertThrows(IllegalStateException.class, () -> new TransactionService(
+            transactionRepository, transactionMapper, userRepository, List.of(transferStrategy), TransferStrategyType.ATOMIC));
     }
 
     @Test
@@ -122,4 +113,73 @@ class TransactionServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
         assertThrows(UserNotFoundException.class, () -> transactionService.getTransactionsByUser(1L, Pageable.unpaged()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTransactionsByUserAfter_whenMoreRowsExist_shouldReturnCursorOfLastRow() {
+        Transaction last = new Transaction();
+        last.setId(7L);
+        last.setCreatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 123_456_000));
+        Transaction beyondLimit = new Transaction();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(transactionRepository.findHistoryHead(1L, 2)).thenReturn(List.of(last, beyondLimit));
+        when(transactionMapper.toDTO(last)).thenReturn(new TransactionDTO());
+
+        TransactionSliceDTO result = transactionService.getTransactionsByUserAfter(1L, null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(TransactionCursor.of(last), TransactionCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void getTransactionsByUserAfter_whenCursorGiven_shouldSeekPastIt() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 1, 2, 3, 4, 5), 7L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(transactionRepository.findHistoryAfter(1L, cursor.createdAt(), 7L, 21)).thenReturn(List.of());
+
+        TransactionSliceDTO result = transactionService.getTransactionsByUserAfter(1L, cursor.encode(), 20);
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getTransactionsByUserAfter_whenCursorIsMalformed_shouldThrowException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        assertThrows(InvalidCursorException.class,
+            () -> transactionService.getTransactionsByUserAfter(1L, "not a cursor", 20));
+        verify(transactionRepository, never()).findHistoryAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findByIdempotencyKey_whenSameRequestWasCommitted_shouldReturnIt() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, new BigDecimal("100"), "test");
+        Transaction committed = committedTransaction(new BigDecimal("100.00"));
+        TransactionDTO dto = new TransactionDTO();
+        when(transactionRepository.findByIdempotencyKey("1:key")).thenReturn(Optional.of(committed));
+        when(transactionMapper.toDTO(committed)).thenReturn(dto);
+
+        assertSame(dto, transactionService.findByIdempotencyKey("1:key", request).orElseThrow());
+    }
+
+    @Test
+    void findByIdempotencyKey_whenKeyWasUsedForDifferentRequest_shouldThrowException() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, new BigDecimal("5"), "test");
+        when(transactionRepository.findByIdempotencyKey("1:key")).thenReturn(Optional.of(committedTransaction(new BigDecimal("100"))));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> transactionService.findByIdempotencyKey("1:key", request));
+    }
+
+    private Transaction committedTransaction(BigDecimal amount) {
+        Card fromCard = new Card();
+        fromCard.setId(1L);
+        Card toCard = new Card();
+        toCard.setId(2L);
+        Transaction transaction = new Transaction();
+        transaction.setFromCard(fromCard);
+        transaction.setToCard(toCard);
+        transaction.setAmount(amount);
+        transaction.setDescription("test");
+        return transaction;
+    }
+}
@@ -9,6 +9,7 @@ import com.example.bankcards.exception.NoUserActivenessUpdateException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.mapper.GetAllUsersMapper;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.security.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +33,10 @@ class UserServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private GetAllUsersMapper getAllUsersMapper;
+    @Mock
+    private UserDetailsCache userDetailsCache;
+    @Mock
+    private RefreshTokenService refreshTokenService;
     @InjectMocks
     private UserService userService;
 
@@ -95,6 +100,27 @@ class UserServiceTest {
         userService.blockUser(1L);
 
         assertFalse(testUser.getIsActive());
+        assertEquals(1, testUser.getAccountVersion());
+        verify(userDetailsCache).invalidate(1L);
+        verify(refreshTokenService).revokeAllForUser(1L);
+    }
+
+    @Test
+    void revokeAllSessions_shouldBumpAccountVersionAndRevokeRefreshTokens() {
+        when(userRepository.incrementAccountVersion(1L)).thenReturn(1);
+
+        userService.revokeAllSessions(1L);
+
+        verify(userDetailsCache).invalidate(1L);
+        verify(refreshTokenService).revokeAllForUser(1L);
+    }
+
+    @Test
+    void revokeAllSessions_whenUserNotFound_shouldThrowException() {
+        when(userRepository.incrementAccountVersion(1L)).thenReturn(0);
+
+        assertThrows(UserNotFoundException.class, () -> userService.revokeAllSessions(1L));
+        verifyNoInteractions(refreshTokenService);
     }
 
     @Test
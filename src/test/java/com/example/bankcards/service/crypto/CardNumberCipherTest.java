@@ -0,0 +1,77 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.exception.CardEncryptingException;
+import com.example.bankcards.util.CardNumberUtil;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CardNumberCipherTest {
+
+    private static final SecretKey KEY_V1 = new SecretKeySpec(filled(1), "AES");
+    private static final SecretKey KEY_V2 = new SecretKeySpec(filled(2), "AES");
+
+    @Test
+    void encrypt_shouldPrefixActiveVersionAndRoundTrip() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(2, Map.of(1, KEY_V1, 2, KEY_V2)));
+
+        CardCiphertext ciphertext = cipher.encrypt("4111111111111111");
+
+        assertEquals(2, ciphertext.keyVersion());
+        assertEquals(2, ciphertext.data()[0]);
+        assertEquals(1 + 12 + 16 + 16, ciphertext.data().length);
+        assertEquals("4111111111111111", cipher.decrypt(ciphertext.data(), 2));
+    }
+
+    @Test
+    void decrypt_afterRotation_shouldStillReadOldVersion() {
+        CardCiphertext old = new CardNumberCipher(new CardKeyring(1, Map.of(1, KEY_V1))).encrypt("4111111111111111");
+        CardNumberCipher rotated = new CardNumberCipher(new CardKeyring(2, Map.of(1, KEY_V1, 2, KEY_V2)));
+
+        assertEquals("4111111111111111", rotated.decrypt(old.data(), 1));
+    }
+
+    @Test
+    void decrypt_whenVersionIsNull_shouldReadLegacyFormat() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(1, Map.of(1, KEY_V1)));
+
+        assertEquals("4111111111111111", cipher.decrypt(CardNumberUtil.encryptCardNumber("4111111111111111"), null));
+    }
+
+    @Test
+    void decrypt_whenCiphertextIsTampered_shouldThrow() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(1, Map.of(1, KEY_V1)));
+        byte[] data = cipher.encrypt("4111111111111111").data();
+        data[data.length - 1] ^= 1;
+
+        assertThrows(CardEncryptingException.class, () -> cipher.decrypt(data, 1));
+    }
+
+    @Test
+    void decrypt_whenVersionByteDoesNotMatchColumn_shouldThrow() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(2, Map.of(1, KEY_V1, 2, KEY_V2)));
+        byte[] data = cipher.encrypt("4111111111111111").data();
+
+        assertThrows(CardEncryptingException.class, () -> cipher.decrypt(data, 1));
+    }
+
+    @Test
+    void encrypt_shouldUseFreshNonceForEveryCall() {
+        CardNumberCipher cipher = new CardNumberCipher(new CardKeyring(1, Map.of(1, KEY_V1)));
+
+        assertFalse(Arrays.equals(cipher.encrypt("4111111111111111").data(), cipher.encrypt("4111111111111111").data()));
+    }
+
+    private static byte[] filled(int value) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) value);
+        return key;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.bankcards.service.crypto;
+
+import com.example.bankcards.repository.CardReencryptionRepository;
+import com.example.bankcards.repository.CardReencryptionRepository.CardRow;
+import com.example.bankcards.repository.CardReencryptionRepository.Progress;
+import com.example.bankcards.repository.CardReencryptionRepository.ReencryptedCard;
+import com.example.bankcards.util.CardNumberUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardReencryptionJobTest {
+
+    @Mock
+    private CardReencryptionRepository reencryptionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CardNumberCipher cipher;
+    private SimpleMeterRegistry meterRegistry;
+    private CardReencryptionJob job;
+
+    @BeforeEach
+    void setUp() {
+        cipher = new CardNumberCipher(new CardKeyring(2, Map.of(
+            1, new SecretKeySpec(new byte[32], "AES"),
+            2, new SecretKeySpec(new byte[16], "AES"))));
+        meterRegistry = new SimpleMeterRegistry();
+        job = new CardReencryptionJob(reencryptionRepository, cipher, transactionManager, meterRegistry, 100, 0);
+    }
+
+    @Test
+    void run_shouldResumeFromCheckpointAndRewriteOutdatedCardsChunkByChunk() {
+        when(reencryptionRepository.findProgress(2)).thenReturn(Optional.of(new Progress(100, false)));
+        when(reencryptionRepository.findMaxCardId()).thenReturn(250L);
+        when(reencryptionRepository.findOutdatedInRange(100, 200, 2))
+            .thenReturn(List.of(new CardRow(150, CardNumberUtil.encryptCardNumber("4111111111111111"), null)));
+        when(reencryptionRepository.findOutdatedInRange(200, 250, 2)).thenReturn(List.of());
+        when(reencryptionRepository.updateCardNumbers(anyList())).thenReturn(1);
+
+        job.run();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReencryptedCard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reencryptionRepository).updateCardNumbers(captor.capture());
+        ReencryptedCard card = captor.getValue().get(0);
+        assertEquals(2, card.keyVersion());
+        assertEquals("1111", card.lastFour());
+        assertEquals("4111111111111111", cipher.decrypt(card.cardNumber(), card.keyVersion()));
+
+        verify(reencryptionRepository, never()).findOutdatedInRange(eq(0L), anyLong(), anyInt());
+        verify(reencryptionRepository).saveProgress(2, new Progress(200, false));
+        verify(reencryptionRepository).saveProgress(2, new Progress(250, true));
+        assertEquals(1, meterRegistry.counter("card.reencryption.rows", "result", "reencrypted").count());
+        assertEquals(250, meterRegistry.get("card.reencryption.last.card.id").gauge().value());
+    }
+
+    @Test
+    void run_whenAlreadyCompleted_shouldDoNothing() {
+        when(reencryptionRepository.findProgress(2)).thenReturn(Optional.of(new Progress(250, true)));
+
+        job.run();
+
+        verify(reencryptionRepository, never()).findMaxCardId();
+    }
+
+    @Test
+    void run_whenCardCannotBeDecrypted_shouldCountItAndStillCompleteThePass() {
+        when(reencryptionRepository.findProgress(2)).thenReturn(Optional.empty());
+        when(reencryptionRepository.findMaxCardId()).thenReturn(10L);
+        when(reencryptionRepository.findOutdatedInRange(0, 10, 2))
+            .thenReturn(List.of(new CardRow(5, new byte[8], 1)));
+
+        job.run();
+
+        verify(reencryptionRepository, never()).updateCardNumbers(anyList());
+        verify(reencryptionRepository).saveProgress(2, new Progress(10, true));
+        assertEquals(1, meterRegistry.counter("card.reencryption.rows", "result", "failed").count());
+    }
+}
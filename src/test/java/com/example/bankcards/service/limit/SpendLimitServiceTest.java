@@ -0,0 +1,127 @@
+package com.example.bankcards.service.limit;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.exception.SpendLimitExceededException;
+import com.example.bankcards.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendLimitServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private SpendLimitService spendLimitService;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        spendLimitService = new SpendLimitService(redisTemplate, transactionRepository,
+            new BigDecimal("1000.00"), new BigDecimal("5000.00"));
+
+        card = new Card();
+        card.setId(7L);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_whenWithinLimits_shouldReserveInCentsAgainstDefaultLimits() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("1050"), eq("100000"), eq("500000")))
+            .thenReturn(List.of("1", "d1", "m1"));
+
+        spendLimitService.reserve(card, new BigDecimal("10.50"));
+
+        verify(redisTemplate).execute(any(RedisScript.class), argThat((List<String> keys) ->
+                keys.get(0).startsWith("spend:day:7:") && keys.get(1).startsWith("spend:month:7:")),
+            eq("1050"), eq("100000"), eq("500000"));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_whenCardHasOwnLimits_shouldUseThemInsteadOfDefaults() {
+        card.setDailyLimit(new BigDecimal("20.00"));
+        card.setMonthlyLimit(new BigDecimal("30.00"));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("2500"), eq("2000"), eq("3000")))
+            .thenReturn(List.of("0"));
+
+        assertThrows(SpendLimitExceededException.class, () -> spendLimitService.reserve(card, new BigDecimal("25.00")));
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_whenCountersAreMissing_shouldSeedThemWithNewEpochAndRetry() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("100"), eq("100000"), eq("500000")))
+            .thenReturn(List.of("-1"), List.of("1", "d1", "m1"));
+        when(transactionRepository.sumOutgoingSince(eq(7L), any(LocalDateTime.class)))
+            .thenReturn(new BigDecimal("12.34"), new BigDecimal("56.78"));
+
+        spendLimitService.reserve(card, BigDecimal.ONE);
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+            argThat((List<String> keys) -> keys.size() == 1 && keys.get(0).startsWith("spend:day:7:")),
+            eq("1234"), anyString(), anyString());
+        verify(redisTemplate).execute(any(RedisScript.class),
+            argThat((List<String> keys) -> keys.size() == 1 && keys.get(0).startsWith("spend:month:7:")),
+            eq("5678"), anyString(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_whenTransactionRollsBack_shouldReleaseOnlyFromCountersOfTheSameEpoch() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("250"), eq("100000"), eq("500000")))
+            .thenReturn(List.of("1", "d1", "m1"));
+        spendLimitService.reserve(card, new BigDecimal("2.50"));
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), eq("250"), eq("d1"), eq("m1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_whenTransactionCommits_shouldKeepReservation() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), eq("250"), eq("100000"), eq("500000")))
+            .thenReturn(List.of("1", "d1", "m1"));
+        spendLimitService.reserve(card, new BigDecimal("2.50"));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), eq("250"), eq("d1"), eq("m1"));
+    }
+}
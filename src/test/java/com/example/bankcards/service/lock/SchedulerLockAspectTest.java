@@ -0,0 +1,74 @@
+package com.example.bankcards.service.lock;
+
+import com.example.bankcards.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockAspectTest {
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SchedulerLockAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new SchedulerLockAspect(schedulerLockRepository, meterRegistry, "node-1");
+    }
+
+    @Test
+    void runLocked_whenLeaseAcquired_shouldRunJobAndRecordSuccess() throws Throwable {
+        when(schedulerLockRepository.tryAcquire("job", Duration.ofMinutes(30), "node-1")).thenReturn(true);
+
+        aspect.runLocked(joinPoint, lock("30m", "5m"));
+
+        verify(joinPoint).proceed();
+        verify(schedulerLockRepository).release("job", Duration.ofMinutes(5), "node-1", true);
+        assertEquals(1.0, meterRegistry.counter("scheduler.lock", "name", "job", "result", "acquired").count());
+    }
+
+    @Test
+    void runLocked_whenLeaseHeldElsewhere_shouldSkipJob() throws Throwable {
+        when(schedulerLockRepository.tryAcquire("job", Duration.ofMinutes(30), "node-1")).thenReturn(false);
+
+        aspect.runLocked(joinPoint, lock("PT30M", "0s"));
+
+        verify(joinPoint, never()).proceed();
+        verify(schedulerLockRepository, never()).release(any(), any(), any(), anyBoolean());
+        assertEquals(1.0, meterRegistry.counter("scheduler.lock", "name", "job", "result", "skipped").count());
+    }
+
+    @Test
+    void runLocked_whenJobFails_shouldReleaseAndRecordFailure() throws Throwable {
+        when(schedulerLockRepository.tryAcquire("job", Duration.ofMinutes(30), "node-1")).thenReturn(true);
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> aspect.runLocked(joinPoint, lock("30m", "0s")));
+
+        verify(schedulerLockRepository).release("job", Duration.ZERO, "node-1", false);
+    }
+
+    private static SchedulerLock lock(String lockAtMostFor, String lockAtLeastFor) {
+        SchedulerLock lock = mock(SchedulerLock.class);
+        when(lock.name()).thenReturn("job");
+        when(lock.lockAtMostFor()).thenReturn(lockAtMostFor);
+        when(lock.lockAtLeastFor()).thenReturn(lockAtLeastFor);
+        return lock;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerTransferStrategyTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private SpendLimitService spendLimitService;
+    @InjectMocks
+    private LedgerTransferStrategy strategy;
+
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = new User();
+        testUser.setId(1L);
+
+        fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setUser(testUser);
+        fromCard.setStatus(CardStatus.ACTIVE);
+        fromCard.setBalance(BigDecimal.valueOf(100));
+        fromCard.setExpiryDate(LocalDate.now().plusYears(1));
+
+        toCard = new Card();
+        toCard.setId(2L);
+        toCard.setUser(testUser);
+        toCard.setStatus(CardStatus.ACTIVE);
+        toCard.setBalance(BigDecimal.valueOf(100));
+        toCard.setExpiryDate(LocalDate.now().plusYears(1));
+
+        when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+    }
+
+    @Test
+    void transfer_whenPendingCreditsCoverAmount_shouldAppendLedgerEntryWithoutTouchingBalances() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(150), "test");
+        when(transactionRepository.sumPendingLedgerDelta(1L)).thenReturn(BigDecimal.valueOf(60));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        strategy.transfer(1L, request);
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(captor.capture());
+        assertTrue(captor.getValue().getLedger());
+        assertEquals(BigDecimal.valueOf(100), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(100), toCard.getBalance());
+        verify(cardRepository, never()).findByIdForUpdate(2L);
+    }
+
+    @Test
+    void transfer_whenPendingDebitsExhaustBalance_shouldThrowException() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(50), "test");
+        when(transactionRepository.sumPendingLedgerDelta(1L)).thenReturn(BigDecimal.valueOf(-60));
+
+        assertThrows(InsufficientFundsException.class, () -> strategy.transfer(1L, request));
+        verify(transactionRepository, never()).save(any());
+    }
+}
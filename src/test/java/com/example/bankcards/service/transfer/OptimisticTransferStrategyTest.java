@@ -0,0 +1,87 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.TransferConflictException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticTransferStrategyTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private SpendLimitService spendLimitService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private OptimisticTransferStrategy strategy;
+    private final CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.TEN, "test");
+
+    @BeforeEach
+    void setUp() {
+        strategy = new OptimisticTransferStrategy(cardRepository, transactionRepository, spendLimitService, transactionManager, 3, 0);
+
+        User testUser = new User();
+        testUser.setId(1L);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(activeCard(1L, testUser)));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(activeCard(2L, testUser)));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    }
+
+    @Test
+    void transfer_whenConflictIsTransient_shouldRetryAndSucceed() {
+        doThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L))
+            .doNothing()
+            .when(transactionManager).commit(transactionStatus);
+
+        assertNotNull(strategy.transfer(1L, request));
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void transfer_whenConflictPersists_shouldGiveUpAfterMaxAttempts() {
+        doThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L))
+            .when(transactionManager).commit(transactionStatus);
+
+        assertThrows(TransferConflictException.class, () -> strategy.transfer(1L, request));
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    private Card activeCard(Long id, User user) {
+        Card card = new Card();
+        card.setId(id);
+        card.setUser(user);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setBalance(BigDecimal.valueOf(1000));
+        card.setExpiryDate(LocalDate.now().plusYears(1));
+        return card;
+    }
+}
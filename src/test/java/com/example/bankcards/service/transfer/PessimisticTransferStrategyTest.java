@@ -0,0 +1,181 @@
+package com.example.bankcards.service.transfer;
+
+import com.example.bankcards.dto.transaction.CreateTransactionRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.enums.CardStatus;
+import com.example.bankcards.exception.CardBlockedException;
+import com.example.bankcards.exception.CardNotFoundException;
+import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.SpendLimitExceededException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.service.limit.SpendLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PessimisticTransferStrategyTest {
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private SpendLimitService spendLimitService;
+    @InjectMocks
+    private PessimisticTransferStrategy strategy;
+
+    private Card fromCard;
+    private Card toCard;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = new User();
+        testUser.setId(1L);
+
+        fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setUser(testUser);
+        fromCard.setStatus(CardStatus.ACTIVE);
+        fromCard.setBalance(BigDecimal.valueOf(500));
+        fromCard.setExpiryDate(LocalDate.now().plusYears(1));
+
+        toCard = new Card();
+        toCard.setId(2L);
+        toCard.setUser(testUser);
+        toCard.setStatus(CardStatus.ACTIVE);
+        toCard.setBalance(BigDecimal.valueOf(100));
+        toCard.setExpiryDate(LocalDate.now().plusYears(1));
+
+        lenient().when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(fromCard));
+        lenient().when(cardRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(toCard));
+    }
+
+    @Test
+    void transfer_whenValid_shouldMoveBalance() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        strategy.transfer(1L, request);
+
+        assertEquals(BigDecimal.valueOf(400), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(200), toCard.getBalance());
+        verify(spendLimitService).reserve(fromCard, BigDecimal.valueOf(100));
+        verify(transactionRepository).save(any(Transaction.class));
+    }
+
+    @Test
+    void transfer_whenSpendLimitExceeded_shouldLeaveBalancesUntouched() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
+        doThrow(new SpendLimitExceededException()).when(spendLimitService).reserve(fromCard, BigDecimal.valueOf(100));
+
+        assertThrows(SpendLimitExceededException.class, () -> strategy.transfer(1L, request));
+        assertEquals(BigDecimal.valueOf(500), fromCard.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transfer_whenReversed_shouldStillLockCardsInAscendingIdOrder() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(2L, 1L, BigDecimal.valueOf(50), "test");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        strategy.transfer(1L, request);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).findByIdForUpdate(1L);
+        inOrder.verify(cardRepository).findByIdForUpdate(2L);
+        assertEquals(BigDecimal.valueOf(50), toCard.getBalance());
+        assertEquals(BigDecimal.valueOf(550), fromCard.getBalance());
+    }
+
+    @Test
+    void transfer_shouldCheckLoadedBalanceWithoutQueryingPendingLedgerEntries() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(500), "test");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        strategy.transfer(1L, request);
+
+        assertEquals(BigDecimal.ZERO, fromCard.getBalance());
+        verify(transactionRepository, never()).sumPendingLedgerDelta(anyLong());
+    }
+
+    @Test
+    void transfer_whenInsufficientFunds_shouldThrowException() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(1000), "test");
+
+        assertThrows(InsufficientFundsException.class, () -> strategy.transfer(1L, request));
+        verify(spendLimitService, never()).reserve(any(), any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transfer_whenCardIsBlocked_shouldThrowException() {
+        fromCard.setStatus(CardStatus.BLOCKED);
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
+
+        assertThrows(CardBlockedException.class, () -> strategy.transfer(1L, request));
+    }
+
+    @Test
+    void transfer_whenCardBelongsToAnotherUser_shouldThrowNotFound() {
+        CreateTransactionRequestDTO request = new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "test");
+
+        assertThrows(CardNotFoundException.class, () -> strategy.transfer(2L, request));
+    }
+
+    @Test
+    void transferBatch_shouldLockAllCardsOnceInAscendingOrderAndApplySequentially() {
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        List<QueuedTransfer> batch = List.of(
+            new QueuedTransfer("a", 1L, new CreateTransactionRequestDTO(2L, 1L, BigDecimal.valueOf(100), "a")),
+            new QueuedTransfer("b", 1L, new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(550), "b")));
+
+        List<TransferOutcome> outcomes = strategy.transferBatch(batch);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).findByIdForUpdate(1L);
+        inOrder.verify(cardRepository).findByIdForUpdate(2L);
+        verify(cardRepository, times(2)).findByIdForUpdate(any());
+        assertNotNull(outcomes.get(0).transaction());
+        assertNotNull(outcomes.get(1).transaction());
+        assertEquals(BigDecimal.valueOf(50), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(550), toCard.getBalance());
+    }
+
+    @Test
+    void transferBatch_whenOneTransferIsRejected_shouldStillApplyTheOthers() {
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        List<QueuedTransfer> batch = List.of(
+            new QueuedTransfer("a", 1L, new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(1000), "a")),
+            new QueuedTransfer("b", 2L, new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(10), "b")),
+            new QueuedTransfer("c", 1L, new CreateTransactionRequestDTO(1L, 2L, BigDecimal.valueOf(100), "c")));
+
+        List<TransferOutcome> outcomes = strategy.transferBatch(batch);
+
+        assertEquals(new InsufficientFundsException().getMessage(), outcomes.get(0).error());
+        assertEquals(new CardNotFoundException().getMessage(), outcomes.get(1).error());
+        assertNull(outcomes.get(2).error());
+        assertEquals(BigDecimal.valueOf(400), fromCard.getBalance());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@SpringBootTest(properties = {
+    "spring.liquibase.default-schema=public",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379",
+    "spring.data.redis.password=",
+    "jwt.secret=postgres_container_jwt_secret_key_for_tests_only"
+})
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresContainerSupport {
+
+    @Container
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+}
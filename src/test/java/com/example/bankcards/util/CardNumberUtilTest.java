@@ -0,0 +1,87 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.CardEncryptingException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardNumberUtilTest {
+
+    @Test
+    void decryptCardNumber_shouldReadCiphertextWrittenBeforeKeyCaching() throws Exception {
+        byte[] iv = new byte[16];
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest("BankCardsSecretKey123".getBytes(StandardCharsets.UTF_8));
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Arrays.copyOf(hash, 16), "AES"), new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal("4111111111111111".getBytes(StandardCharsets.UTF_8));
+        byte[] stored = Arrays.copyOf(iv, 16 + encrypted.length);
+        System.arraycopy(encrypted, 0, stored, 16, encrypted.length);
+
+        assertEquals("4111111111111111", CardNumberUtil.decryptCardNumber(stored));
+    }
+
+    @Test
+    void encryptCardNumber_shouldUseFreshIvForEveryCall() {
+        byte[] first = CardNumberUtil.encryptCardNumber("4111111111111111");
+        byte[] second = CardNumberUtil.encryptCardNumber("4111111111111111");
+
+        assertFalse(Arrays.equals(first, second));
+        assertEquals(48, first.length);
+    }
+
+    @Test
+    void encryptAndDecrypt_shouldRoundTripAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    String cardNumber = CardNumberUtil.generateCardNumber();
+                    return cardNumber.equals(CardNumberUtil.decryptCardNumber(CardNumberUtil.encryptCardNumber(cardNumber)));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertEquals(Boolean.TRUE, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void generateCardNumber_whenNumberIsTaken_shouldDrawAnother() {
+        Set<String> seen = new HashSet<>();
+
+        String cardNumber = CardNumberUtil.generateCardNumber(number -> seen.add(number) && seen.size() < 3);
+
+        assertEquals(3, seen.size());
+        assertTrue(seen.contains(cardNumber));
+    }
+
+    @Test
+    void generateCardNumber_whenEveryNumberIsTaken_shouldGiveUp() {
+        assertThrows(IllegalStateException.class, () -> CardNumberUtil.generateCardNumber(number -> true));
+    }
+
+    @Test
+    void decryptCardNumber_whenDataIsTooShort_shouldThrow() {
+        assertThrows(CardEncryptingException.class, () -> CardNumberUtil.decryptCardNumber(new byte[16]));
+    }
+}
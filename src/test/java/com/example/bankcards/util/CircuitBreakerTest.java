@@ -0,0 +1,61 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1_000, now::get);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresOnly() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.recordFailure());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void shouldLetOneProbeThroughAfterOpenDuration() {
+        openBreaker();
+
+        now.addAndGet(1_000);
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        assertTrue(breaker.recordSuccess());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeShouldReopenForAnotherOpenDuration() {
+        openBreaker();
+        now.addAndGet(1_000);
+        assertTrue(breaker.allowRequest());
+
+        assertTrue(breaker.recordFailure());
+        now.addAndGet(999);
+        assertFalse(breaker.allowRequest());
+        now.addAndGet(1);
+        assertTrue(breaker.allowRequest());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}